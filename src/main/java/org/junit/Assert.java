@@ -1,11 +1,16 @@
 package org.junit;
 
+import java.util.Collection;
+
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
 import org.junit.internal.ArrayComparisonFailure;
+import org.junit.internal.CharSequenceCompactor;
 import org.junit.internal.ExactComparisonCriteria;
-import org.junit.internal.InexactComparisonCriteria;
+import org.junit.internal.LineComparison;
+import org.junit.internal.PrimitiveArrayComparison;
+import org.junit.internal.StructuralComparison;
 
 /**
  * A set of assertion methods useful for writing tests. Only failed assertions
@@ -22,6 +27,9 @@ import org.junit.internal.InexactComparisonCriteria;
  * @see AssertionError
  */
 public class Assert {
+	// values whose strings are longer together are compacted in failure messages
+	private static final int MAX_FORMATTED_LENGTH= 4096;
+
 	/**
 	 * Protect constructor since it is a static only class
 	 */
@@ -197,7 +205,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, byte[] expecteds,
 			byte[] actuals) throws ArrayComparisonFailure {
-		internalArrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals);
 	}
 
 	/**
@@ -227,7 +235,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, char[] expecteds,
 			char[] actuals) throws ArrayComparisonFailure {
-		internalArrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals);
 	}
 
 	/**
@@ -257,7 +265,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, short[] expecteds,
 			short[] actuals) throws ArrayComparisonFailure {
-		internalArrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals);
 	}
 
 	/**
@@ -287,7 +295,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, int[] expecteds,
 			int[] actuals) throws ArrayComparisonFailure {
-		internalArrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals);
 	}
 
 	/**
@@ -317,7 +325,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, long[] expecteds,
 			long[] actuals) throws ArrayComparisonFailure {
-		internalArrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals);
 	}
 
 	/**
@@ -347,7 +355,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, double[] expecteds,
 			double[] actuals, double delta) throws ArrayComparisonFailure {
-		new InexactComparisonCriteria(delta).arrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals, delta);
 	}
 
 	/**
@@ -377,7 +385,7 @@ public class Assert {
 	 */
 	public static void assertArrayEquals(String message, float[] expecteds,
 			float[] actuals, float delta) throws ArrayComparisonFailure {
-		new InexactComparisonCriteria(delta).arrayEquals(message, expecteds, actuals);
+		PrimitiveArrayComparison.arrayEquals(message, expecteds, actuals, delta);
 	}
 
 	/**
@@ -393,6 +401,132 @@ public class Assert {
 		assertArrayEquals(null, expecteds, actuals, delta);
 	}
 
+	/**
+	 * Asserts that two structures of arrays, lists, sets and maps have the
+	 * same shape and equal elements, comparing them in a single pass. If they
+	 * do not, an {@link AssertionError} is thrown with the given message,
+	 * listing the paths of the first
+	 * {@link StructuralComparison#DEFAULT_MAX_DIFFERENCES} differences
+	 * (differing elements, differing sizes, missing and unexpected keys)
+	 * instead of both structures in full.
+	 * 
+	 * @param message
+	 *            the identifying message for the {@link AssertionError} (<code>null</code>
+	 *            okay)
+	 * @param expected
+	 *            expected structure
+	 * @param actual
+	 *            the structure to check against <code>expected</code>
+	 */
+	public static void assertDeepEquals(String message, Object expected,
+			Object actual) {
+		new StructuralComparison(StructuralComparison.DEFAULT_MAX_DIFFERENCES)
+				.assertDeepEquals(message, expected, actual);
+	}
+
+	/**
+	 * Asserts that two structures of arrays, lists, sets and maps have the
+	 * same shape and equal elements. If they do not, an {@link AssertionError}
+	 * listing the first differences is thrown.
+	 * 
+	 * @param expected
+	 *            expected structure
+	 * @param actual
+	 *            the structure to check against <code>expected</code>
+	 */
+	public static void assertDeepEquals(Object expected, Object actual) {
+		assertDeepEquals(null, expected, actual);
+	}
+
+	/**
+	 * Asserts that two collections contain equal elements, equally often, in
+	 * any order. Elements are matched by hashing, so the comparison takes a
+	 * single pass over each collection. If they do not, an
+	 * {@link AssertionError} is thrown with the given message, listing the
+	 * first missing and unexpected elements.
+	 * 
+	 * @param message
+	 *            the identifying message for the {@link AssertionError} (<code>null</code>
+	 *            okay)
+	 * @param expected
+	 *            expected elements
+	 * @param actual
+	 *            the elements to check against <code>expected</code>
+	 */
+	public static void assertSameElements(String message,
+			Collection<?> expected, Collection<?> actual) {
+		new StructuralComparison(StructuralComparison.DEFAULT_MAX_DIFFERENCES)
+				.assertSameElements(message, expected, actual);
+	}
+
+	/**
+	 * Asserts that two collections contain equal elements, equally often, in
+	 * any order. If they do not, an {@link AssertionError} listing the first
+	 * missing and unexpected elements is thrown.
+	 * 
+	 * @param expected
+	 *            expected elements
+	 * @param actual
+	 *            the elements to check against <code>expected</code>
+	 */
+	public static void assertSameElements(Collection<?> expected,
+			Collection<?> actual) {
+		assertSameElements(null, expected, actual);
+	}
+
+	/**
+	 * Asserts that two texts have the same characters. If they do not, an
+	 * {@link AssertionError} is thrown with the given message, describing the
+	 * first {@link LineComparison#DEFAULT_MAX_DIFFERENCES} lines that differ,
+	 * with their line numbers. Unlike {@link #assertEquals(String, Object, Object)},
+	 * the texts are never copied or printed in full, which makes this suited
+	 * to comparing very large texts. If <code>expected</code> and
+	 * <code>actual</code> are <code>null</code>, they are considered equal.
+	 * 
+	 * @param message
+	 *            the identifying message for the {@link AssertionError} (<code>null</code>
+	 *            okay)
+	 * @param expected
+	 *            expected text
+	 * @param actual
+	 *            the text to check against <code>expected</code>
+	 */
+	public static void assertLinesEqual(String message, CharSequence expected,
+			CharSequence actual) {
+		if (expected == null || actual == null) {
+			if (expected != actual) {
+				CharSequenceCompactor compactor= new CharSequenceCompactor(
+						LineComparison.DEFAULT_CONTEXT_LENGTH,
+						CharSequenceCompactor.DEFAULT_MAX_DELTA_LENGTH,
+						expected, actual);
+				failNotEquals(message, compactor.getExpected(), compactor.getActual());
+			}
+			return;
+		}
+		String differences= new LineComparison(
+				LineComparison.DEFAULT_MAX_DIFFERENCES,
+				LineComparison.DEFAULT_CONTEXT_LENGTH,
+				CharSequenceCompactor.DEFAULT_MAX_DELTA_LENGTH)
+				.describeDifferences(expected, actual);
+		if (differences != null)
+			fail(message == null || message.equals("") ? differences : message
+					+ " " + differences);
+	}
+
+	/**
+	 * Asserts that two texts have the same characters. If they do not, an
+	 * {@link AssertionError} describing the first lines that differ is thrown.
+	 * 
+	 * @param expected
+	 *            expected text
+	 * @param actual
+	 *            the text to check against <code>expected</code>
+	 */
+	public static void assertLinesEqual(CharSequence expected,
+			CharSequence actual) {
+		assertLinesEqual(null, expected, actual);
+	}
+
 	/**
 	 * Asserts that two object arrays are equal. If they are not, an
 	 * {@link AssertionError} is thrown with the given message. If
@@ -467,7 +601,8 @@ public class Assert {
 	 *            long actual value
 	 */
 	static public void assertEquals(String message, long expected, long actual) {
-		assertEquals(message, (Long) expected, (Long) actual);
+		if (expected != actual)
+			failNotEquals(message, (Long) expected, (Long) actual);
 	}
 
 	/**
@@ -651,6 +786,14 @@ public class Assert {
 			formatted= message + " ";
 		String expectedString= String.valueOf(expected);
 		String actualString= String.valueOf(actual);
+		if (expectedString.length() + actualString.length() > MAX_FORMATTED_LENGTH) {
+			CharSequenceCompactor compactor= new CharSequenceCompactor(
+					LineComparison.DEFAULT_CONTEXT_LENGTH,
+					CharSequenceCompactor.DEFAULT_MAX_DELTA_LENGTH,
+					expectedString, actualString);
+			expectedString= compactor.getExpected();
+			actualString= compactor.getActual();
+		}
 		if (expectedString.equals(actualString))
 			return formatted + "expected: "
 					+ formatClassAndValue(expected, expectedString)
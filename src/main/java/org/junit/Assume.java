@@ -36,7 +36,19 @@ public class Assume {
 	 * @param b
 	 */
 	public static void assumeTrue(boolean b) {
-		assumeThat(b, is(true));
+		if (!b)
+			throw new AssumptionViolatedException(b, is(true));
+	}
+
+	/**
+	 * If called with an expression evaluating to {@code false}, the test will halt and be ignored,
+	 * described by the message of {@code message}, which is only built then.
+	 * @param message
+	 * @param b
+	 */
+	public static void assumeTrue(MessageSupplier message, boolean b) {
+		if (!b)
+			throw new AssumptionViolatedException(LazyAssert.messageOf(message), b, is(true));
 	}
 
 	/**
@@ -70,6 +82,18 @@ public class Assume {
 			throw new AssumptionViolatedException(actual, matcher); 
 	}
 
+	/**
+	 * Call to assume that <code>actual</code> satisfies the condition specified by <code>matcher</code>.
+	 * If not, the test halts and is ignored, described by the message of {@code message},
+	 * which is only built then.
+	 * 
+	 * @see #assumeThat(Object, Matcher)
+	 */
+	public static <T> void assumeThat(MessageSupplier message, T actual, Matcher<T> matcher) {
+		if (!matcher.matches(actual))
+			throw new AssumptionViolatedException(LazyAssert.messageOf(message), actual, matcher);
+	}
+
     /**
 	 * Use to assume that an operation completes normally.  If {@code t} is non-null, the test will halt and be ignored.
 	 * 
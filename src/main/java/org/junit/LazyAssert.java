@@ -0,0 +1,132 @@
+package org.junit;
+
+import org.hamcrest.Matcher;
+
+/**
+ * The assertions of {@link Assert}, taking a {@link MessageSupplier} instead
+ * of a message string. The message is only built if the assertion fails, so
+ * an expensive message costs nothing in a loop of passing assertions. Failures
+ * are reported exactly as by the corresponding methods of {@link Assert}. A
+ * null supplier stands for a null message.
+ *
+ * These methods live in a class of their own because, as overloads in
+ * {@link Assert}, they would make calls such as
+ * <code>assertEquals(null, expected, actual)</code> ambiguous.
+ *
+ * @see Assert
+ */
+public class LazyAssert {
+	/**
+	 * Protect constructor since it is a static only class
+	 */
+	protected LazyAssert() {
+	}
+
+	static String messageOf(MessageSupplier message) {
+		return message == null ? null : message.getMessage();
+	}
+
+	/**
+	 * Asserts that a condition is true. If it isn't it throws an
+	 * {@link AssertionError} with the message of {@code message}.
+	 */
+	static public void assertTrue(MessageSupplier message, boolean condition) {
+		if (!condition)
+			Assert.fail(messageOf(message));
+	}
+
+	/**
+	 * Asserts that a condition is false. If it isn't it throws an
+	 * {@link AssertionError} with the message of {@code message}.
+	 */
+	static public void assertFalse(MessageSupplier message, boolean condition) {
+		assertTrue(message, !condition);
+	}
+
+	/**
+	 * Fails a test with the message of {@code message}.
+	 */
+	static public void fail(MessageSupplier message) {
+		Assert.fail(messageOf(message));
+	}
+
+	/**
+	 * Asserts that two objects are equal, as
+	 * {@link Assert#assertEquals(String, Object, Object)} does, building the
+	 * message only if they are not.
+	 */
+	static public void assertEquals(MessageSupplier message, Object expected,
+			Object actual) {
+		if (expected == null ? actual != null : !expected.equals(actual))
+			Assert.assertEquals(messageOf(message), expected, actual);
+	}
+
+	/**
+	 * Asserts that two longs are equal, building the message only if they
+	 * are not. Nothing is allocated if they are.
+	 */
+	static public void assertEquals(MessageSupplier message, long expected,
+			long actual) {
+		if (expected != actual)
+			Assert.assertEquals(messageOf(message), expected, actual);
+	}
+
+	/**
+	 * Asserts that two doubles are equal to within a positive delta, as
+	 * {@link Assert#assertEquals(String, double, double, double)} does,
+	 * building the message only if they are not. Nothing is allocated if they
+	 * are.
+	 */
+	static public void assertEquals(MessageSupplier message, double expected,
+			double actual, double delta) {
+		if (Double.compare(expected, actual) != 0
+				&& !(Math.abs(expected - actual) <= delta))
+			Assert.assertEquals(messageOf(message), expected, actual, delta);
+	}
+
+	/**
+	 * Asserts that an object isn't null, building the message only if it is.
+	 */
+	static public void assertNotNull(MessageSupplier message, Object object) {
+		assertTrue(message, object != null);
+	}
+
+	/**
+	 * Asserts that an object is null, building the message only if it isn't.
+	 */
+	static public void assertNull(MessageSupplier message, Object object) {
+		assertTrue(message, object == null);
+	}
+
+	/**
+	 * Asserts that two objects refer to the same object, as
+	 * {@link Assert#assertSame(String, Object, Object)} does, building the
+	 * message only if they do not.
+	 */
+	static public void assertSame(MessageSupplier message, Object expected,
+			Object actual) {
+		if (expected != actual)
+			Assert.assertSame(messageOf(message), expected, actual);
+	}
+
+	/**
+	 * Asserts that two objects do not refer to the same object, building the
+	 * message only if they do.
+	 */
+	static public void assertNotSame(MessageSupplier message,
+			Object unexpected, Object actual) {
+		if (unexpected == actual)
+			Assert.assertNotSame(messageOf(message), unexpected, actual);
+	}
+
+	/**
+	 * Asserts that <code>actual</code> satisfies the condition specified by
+	 * <code>matcher</code>, as {@link Assert#assertThat(String, Object, Matcher)}
+	 * does, building the reason only if it does not.
+	 */
+	public static <T> void assertThat(MessageSupplier reason, T actual,
+			Matcher<T> matcher) {
+		if (!matcher.matches(actual))
+			Assert.assertThat(messageOf(reason), actual, matcher);
+	}
+}
@@ -0,0 +1,20 @@
+package org.junit;
+
+/**
+ * Builds the message of a failed assertion or assumption. Pass one to
+ * {@link LazyAssert} or {@link Assume} instead of a message string when the
+ * message is expensive to build, so that it is only built if the check fails:
+ * <pre>
+ * assertTrue(new MessageSupplier() {
+ *    public String getMessage() {
+ *       return "state was " + dumpState();
+ *    }
+ * }, isConsistent());
+ * </pre>
+ */
+public interface MessageSupplier {
+	/**
+	 * @return the message, or null for none
+	 */
+	String getMessage();
+}
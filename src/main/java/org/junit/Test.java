@@ -63,6 +63,16 @@ public @interface Test {
 	
 	/** 
 	 * Optionally specify <code>timeout</code> in milliseconds to cause a test method to fail if it
-	 * takes longer than that number of milliseconds.*/
+	 * takes longer than that number of milliseconds. The test runs on a pooled thread shared
+	 * with other timed tests, so values it leaves in {@link ThreadLocal}s may be seen by later
+	 * timed tests.*/
 	long timeout() default 0L; 
+
+	/**
+	 * Optionally specify <code>timeoutOnCallingThread</code> to run a test with a
+	 * <code>timeout</code> on the runner's thread, so that thread-local state is
+	 * visible to it. A shared watchdog thread interrupts the test when it times
+	 * out; a test that ignores the interruption is only reported once it returns.
+	 */
+	boolean timeoutOnCallingThread() default false;
 }
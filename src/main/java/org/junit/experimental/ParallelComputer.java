@@ -1,27 +1,44 @@
 package org.junit.experimental;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-
 import org.junit.runner.Computer;
 import org.junit.runner.Runner;
 import org.junit.runners.ParentRunner;
 import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.RunnerBuilder;
-import org.junit.runners.model.RunnerScheduler;
 
+/**
+ * A {@link Computer} that runs classes, methods, or both in parallel. All
+ * parallelized runners share a single {@link ParallelScheduler}, so the
+ * number of worker threads stays bounded however many classes are run.
+ * 
+ * WARNING: still experimental, may go away.
+ */
 public class ParallelComputer extends Computer {
 	private final boolean fClasses;
 
 	private final boolean fMethods;
 
+	private final ParallelScheduler fScheduler;
+
 	public ParallelComputer(boolean classes, boolean methods) {
+		this(classes, methods, new ParallelScheduler());
+	}
+
+	/**
+	 * Creates a computer that runs at most {@code parallelism} worker threads
+	 */
+	public ParallelComputer(boolean classes, boolean methods, int parallelism) {
+		this(classes, methods, new ParallelScheduler(parallelism));
+	}
+
+	/**
+	 * Creates a computer whose parallelized runners all use {@code scheduler}
+	 */
+	public ParallelComputer(boolean classes, boolean methods,
+			ParallelScheduler scheduler) {
 		fClasses= classes;
 		fMethods= methods;
+		fScheduler= scheduler;
 	}
 
 	public static Computer classes() {
@@ -32,33 +49,9 @@ public class ParallelComputer extends Computer {
 		return new ParallelComputer(false, true);
 	}
 
-	private static <T> Runner parallelize(Runner runner) {
-		if (runner instanceof ParentRunner<?>) {
-			((ParentRunner<?>) runner).setScheduler(new RunnerScheduler() {
-				private final List<Future<Object>> fResults= new ArrayList<Future<Object>>();
-
-				private final ExecutorService fService= Executors
-						.newCachedThreadPool();
-
-				public void schedule(final Runnable childStatement) {
-					fResults.add(fService.submit(new Callable<Object>() {
-						public Object call() throws Exception {
-							childStatement.run();
-							return null;
-						}
-					}));
-				}
-
-				public void finished() {
-					for (Future<Object> each : fResults)
-						try {
-							each.get();
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
-				}
-			});
-		}
+	private Runner parallelize(Runner runner) {
+		if (runner instanceof ParentRunner<?>)
+			((ParentRunner<?>) runner).setScheduler(fScheduler.newScheduler());
 		return runner;
 	}
 
@@ -0,0 +1,189 @@
+package org.junit.experimental;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * A bounded pool of worker threads that can be shared by every
+ * {@link ParentRunner} in a test tree. Each runner gets its own
+ * {@link RunnerScheduler} from {@link #newScheduler()}; scheduled children are
+ * queued on the shared pool. A runner waiting in
+ * {@link RunnerScheduler#finished()} does not park while some of its
+ * children are still queued: it takes them back and runs them itself
+ * (most recently scheduled first), and only waits for the children that a
+ * worker has already started.
+ *
+ * The pool never runs more than {@code parallelism} worker threads, however
+ * deeply suites are nested. Workers are daemon threads that exit after being
+ * idle for a while, and are restarted on demand.
+ *
+ * WARNING: still experimental, may go away.
+ */
+public class ParallelScheduler {
+	private static final long IDLE_MILLIS= 1000;
+
+	private final int fParallelism;
+
+	private final BlockingQueue<Task> fQueue= new LinkedBlockingQueue<Task>();
+
+	private final AtomicInteger fWorkers= new AtomicInteger();
+
+	/**
+	 * Creates a scheduler with one worker per available processor
+	 */
+	public ParallelScheduler() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a scheduler running at most {@code parallelism} worker threads
+	 */
+	public ParallelScheduler(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be positive, was " + parallelism);
+		fParallelism= parallelism;
+	}
+
+	/**
+	 * @return the maximum number of worker threads
+	 */
+	public int getParallelism() {
+		return fParallelism;
+	}
+
+	/**
+	 * Returns a new {@link RunnerScheduler} for a single {@link ParentRunner},
+	 * backed by this pool.
+	 */
+	public RunnerScheduler newScheduler() {
+		return new ChildScheduler();
+	}
+
+	private void submit(Task task) {
+		fQueue.add(task);
+		startWorkerIfNeeded();
+	}
+
+	private void startWorkerIfNeeded() {
+		for (;;) {
+			int workers= fWorkers.get();
+			if (workers >= fParallelism)
+				return;
+			if (fWorkers.compareAndSet(workers, workers + 1)) {
+				Thread worker= new Thread(new Worker(), "junit-parallel-" + workers);
+				worker.setDaemon(true);
+				worker.start();
+				return;
+			}
+		}
+	}
+
+	private class Worker implements Runnable {
+		public void run() {
+			for (;;) {
+				Task task;
+				try {
+					task= fQueue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					task= null;
+				}
+				if (task != null) {
+					task.runIfUnclaimed();
+					continue;
+				}
+				fWorkers.decrementAndGet();
+				// A task may have been queued after the poll timed out
+				if (fQueue.isEmpty())
+					return;
+				startWorkerIfNeeded();
+				return;
+			}
+		}
+	}
+
+	private static class Task {
+		private final Runnable fStatement;
+
+		private final ChildScheduler fOwner;
+
+		private final AtomicBoolean fClaimed= new AtomicBoolean(false);
+
+		Task(Runnable statement, ChildScheduler owner) {
+			fStatement= statement;
+			fOwner= owner;
+		}
+
+		boolean runIfUnclaimed() {
+			if (!fClaimed.compareAndSet(false, true))
+				return false;
+			try {
+				fStatement.run();
+			} catch (Throwable e) {
+				fOwner.failed(e);
+			} finally {
+				fOwner.completed();
+			}
+			return true;
+		}
+	}
+
+	private class ChildScheduler implements RunnerScheduler {
+		private final List<Task> fTasks= new ArrayList<Task>();
+
+		private int fPending= 0;
+
+		private Throwable fFailure= null;
+
+		public void schedule(Runnable childStatement) {
+			Task task= new Task(childStatement, this);
+			fTasks.add(task);
+			synchronized (this) {
+				fPending++;
+			}
+			submit(task);
+		}
+
+		public void finished() {
+			for (int i= fTasks.size() - 1; i >= 0; i--)
+				fTasks.get(i).runIfUnclaimed();
+			fTasks.clear();
+			awaitCompletion();
+		}
+
+		private synchronized void awaitCompletion() {
+			boolean interrupted= false;
+			while (fPending > 0)
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					interrupted= true;
+				}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			Throwable failure= fFailure;
+			fFailure= null;
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+		}
+
+		synchronized void failed(Throwable e) {
+			if (fFailure == null)
+				fFailure= e;
+		}
+
+		synchronized void completed() {
+			if (--fPending == 0)
+				notifyAll();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package org.junit.experimental;
+
+import org.junit.runner.Computer;
+import org.junit.runner.Runner;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.TimeBudget;
+
+/**
+ * A {@link Computer} that limits the wall-clock time of a whole run, of each
+ * class, or both, and otherwise builds runners like the {@link Computer} it
+ * decorates (so it can be combined with a {@link ParallelComputer}):
+ * <pre>
+ * JUnitCore.runClasses(new TimeBudgetComputer(new ParallelComputer(true, true),
+ * 		10 * 60 * 1000, 60 * 1000), classes);
+ * </pre>
+ * When a budget runs out, tests that have not started yet are reported as
+ * ignored, and tests that are running are interrupted.
+ *
+ * WARNING: still experimental, may go away.
+ * @see TimeBudget
+ */
+public class TimeBudgetComputer extends Computer {
+	/**
+	 * Use to leave the run or the classes without a budget
+	 */
+	public static final long UNLIMITED= -1;
+
+	private final Computer fDelegate;
+
+	private final long fRunMillis;
+
+	private final long fClassMillis;
+
+	/**
+	 * @param delegate the computer that builds the runners
+	 * @param runMillis the budget for the whole run, or {@link #UNLIMITED}
+	 * @param classMillis the budget for each class, or {@link #UNLIMITED}
+	 */
+	public TimeBudgetComputer(Computer delegate, long runMillis, long classMillis) {
+		fDelegate= delegate;
+		fRunMillis= runMillis;
+		fClassMillis= classMillis;
+	}
+
+	@Override
+	public Runner getSuite(final RunnerBuilder builder, Class<?>[] classes)
+			throws InitializationError {
+		final TimeBudget runBudget= fRunMillis == UNLIMITED ? null
+				: new TimeBudget(fRunMillis);
+		Runner suite= fDelegate.getSuite(new RunnerBuilder() {
+			@Override
+			public Runner runnerForClass(Class<?> testClass) throws Throwable {
+				Runner runner= builder.runnerForClass(testClass);
+				if (fClassMillis != UNLIMITED)
+					setBudget(runner, new TimeBudget(fClassMillis, runBudget));
+				else if (runBudget != null)
+					setBudget(runner, runBudget);
+				return runner;
+			}
+		}, classes);
+		if (runBudget != null)
+			setBudget(suite, runBudget);
+		return suite;
+	}
+
+	private static void setBudget(Runner runner, TimeBudget budget) {
+		if (runner instanceof ParentRunner<?>)
+			((ParentRunner<?>) runner).setTimeBudget(budget);
+	}
+}
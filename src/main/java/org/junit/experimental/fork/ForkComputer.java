@@ -0,0 +1,492 @@
+package org.junit.experimental.fork;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.junit.experimental.max.DurationStatistics;
+import org.junit.experimental.max.MaxHistory;
+import org.junit.runner.Computer;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+
+/**
+ * Runs the classes of a request in up to {@code forks} JVMs at once, so that
+ * a test that leaks static state, threads or native memory only affects the
+ * classes that share its JVM:
+ * <pre>
+ * JUnitCore.runClasses(new ForkComputer(4, history), classes);
+ * </pre>
+ *
+ * The classes are split into shards, one per forked JVM, each class going
+ * to the shard with the least work so far, longest class first. The work of
+ * a class is the sum of the median durations of its tests in the given
+ * {@link MaxHistory}, or, without history, the number of its tests. Each
+ * forked JVM runs its shard with its own notifier and streams the events
+ * back over a local socket; they are reported, as they arrive, against the
+ * {@link Description}s of this JVM, so listeners and the {@link
+ * org.junit.runner.Result} see a single run. Filters applied to the request
+ * are honored; sorting is not, since the shards run concurrently.
+ *
+ * A forked JVM that exits before it has finished its shard fails the test it
+ * was running, and every class of its shard that did not complete.
+ *
+ * WARNING: still experimental, may go away.
+ */
+public class ForkComputer extends Computer {
+	private static final int CONNECT_TIMEOUT_MILLIS= 60000;
+
+	private static final int POLL_MILLIS= 100;
+
+	private static final int HANDSHAKE_TIMEOUT_MILLIS= 5000;
+
+	private final int fForks;
+
+	private final MaxHistory fHistory;
+
+	private final List<String> fJvmArguments;
+
+	/**
+	 * Creates a computer that runs classes in up to {@code forks} JVMs, with
+	 * shards of about the same number of tests
+	 */
+	public ForkComputer(int forks) {
+		this(forks, null);
+	}
+
+	/**
+	 * Creates a computer that runs classes in up to {@code forks} JVMs,
+	 * balanced by the durations recorded in {@code history} (which may be
+	 * null). {@code jvmArguments} are passed to every forked JVM.
+	 */
+	public ForkComputer(int forks, MaxHistory history, String... jvmArguments) {
+		if (forks < 1)
+			throw new IllegalArgumentException("forks must be positive");
+		fForks= forks;
+		fHistory= history;
+		fJvmArguments= Arrays.asList(jvmArguments);
+	}
+
+	@Override
+	public Runner getSuite(final RunnerBuilder builder, Class<?>[] classes)
+			throws InitializationError {
+		final Map<String, Class<?>> classesByName= new HashMap<String, Class<?>>();
+		Runner suite= super.getSuite(new RunnerBuilder() {
+			@Override
+			public Runner runnerForClass(Class<?> testClass) throws Throwable {
+				Runner runner= builder.runnerForClass(testClass);
+				if (runner != null)
+					classesByName.put(runner.getDescription().getDisplayName(),
+							testClass);
+				return runner;
+			}
+		}, classes);
+		return new ForkedSuite(suite, classesByName);
+	}
+
+	private static class Shard {
+		final List<Description> fClasses= new ArrayList<Description>();
+
+		long fWork= 0;
+	}
+
+	private class ForkedSuite extends Runner implements Filterable {
+		private final Runner fSuite;
+
+		private final Map<String, Class<?>> fClassesByName;
+
+		ForkedSuite(Runner suite, Map<String, Class<?>> classesByName) {
+			fSuite= suite;
+			fClassesByName= classesByName;
+		}
+
+		@Override
+		public Description getDescription() {
+			return fSuite.getDescription();
+		}
+
+		public void filter(Filter filter) throws NoTestsRemainException {
+			filter.apply(fSuite);
+		}
+
+		@Override
+		public void run(RunNotifier notifier) {
+			Description root= getDescription();
+			Map<String, Description> descriptions= new HashMap<String, Description>();
+			index(root, descriptions);
+			List<Shard> shards= shard(root.getChildren());
+			List<Fork> forks= new ArrayList<Fork>();
+			for (Shard each : shards)
+				forks.add(new Fork(each, descriptions, notifier));
+			List<Thread> threads= new ArrayList<Thread>();
+			for (int i= 1; i < forks.size(); i++) {
+				Thread thread= new Thread(forks.get(i), "junit-fork-" + i);
+				thread.start();
+				threads.add(thread);
+			}
+			if (!forks.isEmpty())
+				forks.get(0).run();
+			for (Thread each : threads)
+				try {
+					each.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			for (Fork each : forks)
+				if (each.fStopped)
+					throw new StoppedByUserException();
+		}
+
+		private void index(Description description,
+				Map<String, Description> descriptions) {
+			descriptions.put(description.getDisplayName(), description);
+			for (Description each : description.getChildren())
+				index(each, descriptions);
+		}
+
+		/*
+		 * Longest processing time first: each class, longest first, goes to
+		 * the shard with the least work.
+		 */
+		private List<Shard> shard(List<Description> classes) {
+			final Map<Description, Long> work= estimate(classes);
+			List<Description> longestFirst= new ArrayList<Description>(classes);
+			Collections.sort(longestFirst, new Comparator<Description>() {
+				public int compare(Description o1, Description o2) {
+					return work.get(o2).compareTo(work.get(o1));
+				}
+			});
+			PriorityQueue<Shard> shards= new PriorityQueue<Shard>(fForks,
+					new Comparator<Shard>() {
+						public int compare(Shard o1, Shard o2) {
+							return o1.fWork < o2.fWork ? -1
+									: o1.fWork > o2.fWork ? 1 : 0;
+						}
+					});
+			for (int i= 0; i < Math.min(fForks, classes.size()); i++)
+				shards.add(new Shard());
+			for (Description each : longestFirst) {
+				Shard shard= shards.poll();
+				shard.fClasses.add(each);
+				shard.fWork+= work.get(each);
+				shards.add(shard);
+			}
+			return new ArrayList<Shard>(shards);
+		}
+
+		private Map<Description, Long> estimate(List<Description> classes) {
+			Map<Description, List<Description>> tests= new HashMap<Description, List<Description>>();
+			long known= 0;
+			int count= 0;
+			for (Description each : classes) {
+				List<Description> leaves= new ArrayList<Description>();
+				collectTests(each, leaves);
+				tests.put(each, leaves);
+				for (Description test : leaves) {
+					DurationStatistics statistics= statistics(test);
+					if (statistics != null) {
+						known+= statistics.getMedian();
+						count++;
+					}
+				}
+			}
+			long unknown= count == 0 ? 1 : known / count;
+			Map<Description, Long> result= new HashMap<Description, Long>();
+			for (Description each : classes) {
+				long work= 0;
+				for (Description test : tests.get(each)) {
+					DurationStatistics statistics= statistics(test);
+					work+= statistics == null ? unknown : statistics.getMedian();
+				}
+				result.put(each, work);
+			}
+			return result;
+		}
+
+		private DurationStatistics statistics(Description test) {
+			return fHistory == null ? null : fHistory.getDurationStatistics(test);
+		}
+
+		private class Fork implements Runnable {
+			private final Shard fShard;
+
+			private final Map<String, Description> fDescriptions;
+
+			private final RunNotifier fNotifier;
+
+			private final Set<Description> fRunning= new HashSet<Description>();
+
+			private final Set<Description> fDone= new HashSet<Description>();
+
+			volatile boolean fStopped= false;
+
+			Fork(Shard shard, Map<String, Description> descriptions,
+					RunNotifier notifier) {
+				fShard= shard;
+				fDescriptions= descriptions;
+				fNotifier= notifier;
+			}
+
+			public void run() {
+				Process process= null;
+				String problem;
+				try {
+					ServerSocket server= new ServerSocket(0, 1,
+							InetAddress.getByName(null));
+					try {
+						byte[] token= ForkProtocol.newToken();
+						process= start(server.getLocalPort(), token);
+						Socket socket= accept(server, process, token);
+						try {
+							problem= converse(socket);
+						} finally {
+							socket.close();
+						}
+					} finally {
+						server.close();
+					}
+					if (problem != null)
+						problem+= exitCode(process);
+				} catch (StoppedByUserException e) {
+					fStopped= true;
+					problem= null;
+				} catch (IOException e) {
+					problem= "Could not run forked JVM: " + e;
+				} finally {
+					if (process != null)
+						process.destroy();
+				}
+				if (problem != null)
+					reportUnfinished(problem);
+			}
+
+			private Process start(int port, byte[] token) throws IOException {
+				List<String> command= new ArrayList<String>();
+				command.add(System.getProperty("java.home") + File.separator
+						+ "bin" + File.separator + "java");
+				command.addAll(fJvmArguments);
+				command.add("-cp");
+				command.add(System.getProperty("java.class.path"));
+				command.add(ForkedMain.class.getName());
+				command.add(Integer.toString(port));
+				Process process= new ProcessBuilder(command).start();
+				pump(process.getInputStream(), System.out);
+				pump(process.getErrorStream(), System.err);
+				OutputStream in= process.getOutputStream();
+				try {
+					in.write(token);
+				} finally {
+					in.close();
+				}
+				return process;
+			}
+
+			/*
+			 * Accepts the first connection that presents the token; others,
+			 * from whatever local process made them, are closed unread.
+			 */
+			private Socket accept(ServerSocket server, Process process,
+					byte[] token) throws IOException {
+				server.setSoTimeout(POLL_MILLIS);
+				long deadline= System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+				for (;;) {
+					try {
+						Socket socket= server.accept();
+						if (presentsToken(socket, token))
+							return socket;
+						socket.close();
+					} catch (SocketTimeoutException e) {
+						if (hasExited(process))
+							throw new IOException("forked JVM exited before connecting"
+									+ exitCode(process));
+						if (System.currentTimeMillis() > deadline)
+							throw new IOException("forked JVM did not connect within "
+									+ CONNECT_TIMEOUT_MILLIS + " ms");
+					}
+				}
+			}
+
+			private boolean presentsToken(Socket socket, byte[] token) {
+				try {
+					socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+					byte[] presented= ForkProtocol.readToken(new DataInputStream(
+							socket.getInputStream()));
+					socket.setSoTimeout(0);
+					return ForkProtocol.isToken(token, presented);
+				} catch (IOException e) {
+					return false;
+				}
+			}
+
+			/*
+			 * Sends the shard and reports its events. Returns null once the
+			 * forked JVM has finished the shard, or why it did not.
+			 */
+			private String converse(Socket socket) throws IOException {
+				DataOutputStream out= new DataOutputStream(new BufferedOutputStream(
+						socket.getOutputStream()));
+				List<String> classNames= new ArrayList<String>();
+				List<String> tests= new ArrayList<String>();
+				for (Description each : fShard.fClasses) {
+					classNames.add(fClassesByName.get(each.getDisplayName()).getName());
+					List<Description> leaves= new ArrayList<Description>();
+					collectTests(each, leaves);
+					for (Description test : leaves)
+						tests.add(test.getDisplayName());
+				}
+				ForkProtocol.writeStrings(out, classNames);
+				ForkProtocol.writeStrings(out, tests);
+				out.flush();
+				DataInputStream in= new DataInputStream(new BufferedInputStream(
+						socket.getInputStream()));
+				try {
+					for (;;) {
+						int kind= in.read();
+						if (kind == ForkProtocol.END)
+							return null;
+						if (kind == -1)
+							return "Forked JVM exited before finishing its tests";
+						report((byte) kind, in);
+					}
+				} catch (EOFException e) {
+					return "Forked JVM exited while reporting";
+				}
+			}
+
+			private void report(byte kind, DataInputStream in) throws IOException {
+				Description description= describe(ForkProtocol.readString(in));
+				switch (kind) {
+				case ForkProtocol.STARTED:
+					fRunning.add(description);
+					fNotifier.fireTestStarted(description);
+					break;
+				case ForkProtocol.FINISHED:
+					fRunning.remove(description);
+					fDone.add(description);
+					fNotifier.fireTestFinished(description);
+					break;
+				case ForkProtocol.FAILURE:
+					fNotifier.fireTestFailure(new Failure(description,
+							ForkProtocol.readThrowable(in)));
+					break;
+				case ForkProtocol.ASSUMPTION_FAILURE:
+					fNotifier.fireTestAssumptionFailed(new Failure(description,
+							ForkProtocol.readThrowable(in)));
+					break;
+				case ForkProtocol.IGNORED:
+					fDone.add(description);
+					fNotifier.fireTestIgnored(description);
+					break;
+				default:
+					throw new IOException("Unknown event " + kind
+							+ " from forked JVM");
+				}
+			}
+
+			private Description describe(String displayName) {
+				Description result= fDescriptions.get(displayName);
+				return result != null ? result
+						: Description.createSuiteDescription(displayName);
+			}
+
+			private void reportUnfinished(String problem) {
+				for (Description each : fRunning) {
+					fNotifier.fireTestFailure(new Failure(each, new Exception(
+							problem)));
+					fNotifier.fireTestFinished(each);
+					fDone.add(each);
+				}
+				for (Description each : fShard.fClasses) {
+					List<Description> leaves= new ArrayList<Description>();
+					collectTests(each, leaves);
+					if (!fDone.containsAll(leaves))
+						fNotifier.fireTestFailure(new Failure(each, new Exception(
+								problem)));
+				}
+			}
+		}
+	}
+
+	private static void collectTests(Description description,
+			List<Description> tests) {
+		if (description.isTest())
+			tests.add(description);
+		for (Description each : description.getChildren())
+			collectTests(each, tests);
+	}
+
+	private static boolean hasExited(Process process) {
+		try {
+			process.exitValue();
+			return true;
+		} catch (IllegalThreadStateException e) {
+			return false;
+		}
+	}
+
+	private static String exitCode(Process process) {
+		try {
+			return " (exit code " + process.waitFor() + ")";
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "";
+		}
+	}
+
+	private static void pump(final InputStream from, final PrintStream to) {
+		Thread pump= new Thread(new Runnable() {
+			public void run() {
+				byte[] buffer= new byte[8192];
+				try {
+					for (int read; (read= from.read(buffer)) != -1;)
+						write(to, buffer, read);
+				} catch (IOException e) {
+					// the forked JVM is gone
+				}
+			}
+		}, "junit-fork-output");
+		pump.setDaemon(true);
+		pump.start();
+	}
+
+	private static void write(OutputStream to, byte[] buffer, int length) {
+		synchronized (to) {
+			try {
+				to.write(buffer, 0, length);
+				to.flush();
+			} catch (IOException e) {
+				// nowhere left to report it
+			}
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package org.junit.experimental.fork;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.internal.CompactThrowable;
+
+/*
+ * The messages exchanged between a ForkComputer and the JVMs it forks. The
+ * parent hands the child a random token through its standard input, and
+ * accepts only a connection that presents it first, since any local process
+ * can connect to the parent's port. The parent then sends the names of the
+ * classes to run and the display names of the tests to keep; the child
+ * answers with one message per event, and END once its run has finished. A
+ * failure carries the exception serialized, when it can be, and always its
+ * class name, message and printed trace, so that the parent can stand in for
+ * an exception it cannot deserialize.
+ */
+final class ForkProtocol {
+	static final byte STARTED= 'S';
+
+	static final byte FINISHED= 'F';
+
+	static final byte FAILURE= 'X';
+
+	static final byte ASSUMPTION_FAILURE= 'A';
+
+	static final byte IGNORED= 'I';
+
+	static final byte END= 'E';
+
+	static final int TOKEN_LENGTH= 16;
+
+	private static final SecureRandom RANDOM= new SecureRandom();
+
+	private ForkProtocol() {
+	}
+
+	static byte[] newToken() {
+		byte[] token= new byte[TOKEN_LENGTH];
+		RANDOM.nextBytes(token);
+		return token;
+	}
+
+	static byte[] readToken(DataInputStream in) throws IOException {
+		byte[] token= new byte[TOKEN_LENGTH];
+		in.readFully(token);
+		return token;
+	}
+
+	static boolean isToken(byte[] expected, byte[] actual) {
+		return MessageDigest.isEqual(expected, actual);
+	}
+
+	static void writeString(DataOutputStream out, String string)
+			throws IOException {
+		byte[] bytes= string.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		return new String(readBytes(in), "UTF-8");
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		int length= in.readInt();
+		if (length < 0)
+			throw new IOException("Corrupt message from forked JVM");
+		byte[] bytes= new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	static void writeStrings(DataOutputStream out, List<String> strings)
+			throws IOException {
+		out.writeInt(strings.size());
+		for (String each : strings)
+			writeString(out, each);
+	}
+
+	static List<String> readStrings(DataInputStream in) throws IOException {
+		int count= in.readInt();
+		if (count < 0)
+			throw new IOException("Corrupt message from forked JVM");
+		List<String> result= new ArrayList<String>();
+		for (int i= 0; i < count; i++)
+			result.add(readString(in));
+		return result;
+	}
+
+	static void writeThrowable(DataOutputStream out, Throwable throwable,
+			String trace) throws IOException {
+		writeString(out, throwable.getClass().getName());
+		String message= throwable.getMessage();
+		out.writeBoolean(message != null);
+		if (message != null)
+			writeString(out, message);
+		writeString(out, trace);
+		byte[] serialized= serialize(throwable);
+		out.writeInt(serialized.length);
+		out.write(serialized);
+	}
+
+	static Throwable readThrowable(DataInputStream in) throws IOException {
+		String className= readString(in);
+		String message= in.readBoolean() ? readString(in) : null;
+		String trace= readString(in);
+		byte[] serialized= readBytes(in);
+		Throwable result= deserialize(serialized);
+		return result != null ? result : new CompactThrowable(className,
+				message, trace);
+	}
+
+	private static byte[] serialize(Throwable throwable) {
+		ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+		try {
+			ObjectOutputStream out= new ObjectOutputStream(bytes);
+			out.writeObject(throwable);
+			out.close();
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			// something the exception references is not serializable
+			return new byte[0];
+		}
+	}
+
+	private static Throwable deserialize(byte[] serialized) {
+		if (serialized.length == 0)
+			return null;
+		try {
+			ObjectInputStream in= new ObjectInputStream(
+					new ByteArrayInputStream(serialized));
+			return (Throwable) in.readObject();
+		} catch (Exception e) {
+			// the class is missing here, or changed incompatibly
+			return null;
+		}
+	}
+}
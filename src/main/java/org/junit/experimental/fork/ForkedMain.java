@@ -0,0 +1,139 @@
+package org.junit.experimental.fork;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.runner.Computer;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * The main class of the JVMs forked by a {@link ForkComputer}. Connects to
+ * the port given as its only argument, identifies itself with the token
+ * read from its standard input, reads the shard to run, and streams the
+ * events of the run back. Not meant to be run by hand.
+ */
+public class ForkedMain {
+	public static void main(String... args) throws Exception {
+		byte[] token= ForkProtocol.readToken(new DataInputStream(System.in));
+		Socket socket= new Socket(InetAddress.getByName(null),
+				Integer.parseInt(args[0]));
+		DataInputStream in= new DataInputStream(new BufferedInputStream(
+				socket.getInputStream()));
+		DataOutputStream out= new DataOutputStream(new BufferedOutputStream(
+				socket.getOutputStream()));
+		out.write(token);
+		out.flush();
+		List<String> classNames= ForkProtocol.readStrings(in);
+		Set<String> tests= new HashSet<String>(ForkProtocol.readStrings(in));
+		Class<?>[] classes= new Class<?>[classNames.size()];
+		for (int i= 0; i < classes.length; i++)
+			classes[i]= Class.forName(classNames.get(i));
+		JUnitCore core= new JUnitCore();
+		core.addListener(new EventWriter(out));
+		core.run(Request.classes(new Computer(), classes).filterWith(
+				new DisplayNameFilter(tests)));
+		out.writeByte(ForkProtocol.END);
+		out.flush();
+		socket.close();
+		// threads the tests left behind must not keep this JVM alive
+		System.exit(0);
+	}
+
+	private static class DisplayNameFilter extends Filter {
+		private final Set<String> fTests;
+
+		DisplayNameFilter(Set<String> tests) {
+			fTests= tests;
+		}
+
+		@Override
+		public boolean shouldRun(Description description) {
+			if (description.isTest())
+				return fTests.contains(description.getDisplayName());
+			for (Description each : description.getChildren())
+				if (shouldRun(each))
+					return true;
+			return false;
+		}
+
+		@Override
+		public String describe() {
+			return "tests of this shard";
+		}
+	}
+
+	private static class EventWriter extends RunListener {
+		private final DataOutputStream fOut;
+
+		EventWriter(DataOutputStream out) {
+			fOut= out;
+		}
+
+		@Override
+		public synchronized void testStarted(Description description)
+				throws IOException {
+			write(ForkProtocol.STARTED, description);
+			// the parent learns which test is running before the test can
+			// bring this JVM down
+			fOut.flush();
+		}
+
+		@Override
+		public synchronized void testFinished(Description description)
+				throws IOException {
+			write(ForkProtocol.FINISHED, description);
+		}
+
+		@Override
+		public synchronized void testFailure(Failure failure) throws IOException {
+			write(ForkProtocol.FAILURE, failure);
+		}
+
+		@Override
+		public synchronized void testAssumptionFailure(Failure failure) {
+			try {
+				write(ForkProtocol.ASSUMPTION_FAILURE, failure);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public synchronized void testIgnored(Description description)
+				throws IOException {
+			write(ForkProtocol.IGNORED, description);
+		}
+
+		@Override
+		public synchronized void testRunFinished(Result result)
+				throws IOException {
+			fOut.flush();
+		}
+
+		private void write(byte kind, Description description)
+				throws IOException {
+			fOut.writeByte(kind);
+			ForkProtocol.writeString(fOut, description.getDisplayName());
+		}
+
+		private void write(byte kind, Failure failure) throws IOException {
+			write(kind, failure.getDescription());
+			ForkProtocol.writeThrowable(fOut, failure.getException(),
+					failure.getTrace());
+		}
+	}
+}
@@ -0,0 +1,350 @@
+package org.junit.experimental.max;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the application classes a class can reach by reading the constant
+ * pools of class files: every class named in a class reference or in a field
+ * or method signature, and so on transitively. Classes of the JDK and of
+ * JUnit itself are not application classes. A class depends on a class
+ * nested in it only if its code or signatures use the nested class: every
+ * class file lists the classes nested in it, and following that list would
+ * make every nested class depend, through its enclosing class, on all of its
+ * siblings.
+ */
+class ClassDependencies {
+	private static final String[] PLATFORM_PREFIXES= { "java.", "javax.",
+			"sun.", "com.sun.", "jdk.", "org.hamcrest." };
+
+	private final String fJUnitLocation;
+
+	private final Map<String, Set<String>> fDirect= new HashMap<String, Set<String>>();
+
+	ClassDependencies() {
+		URL self= ClassDependencies.class.getResource("ClassDependencies.class");
+		String path= self == null ? null : self.toString();
+		String suffix= "org/junit/experimental/max/ClassDependencies.class";
+		fJUnitLocation= path != null && path.endsWith(suffix) ? path.substring(0,
+				path.length() - suffix.length()) : null;
+	}
+
+	/**
+	 * @return the names of the application classes reachable from
+	 * {@code root}, including {@code root} itself
+	 */
+	synchronized Set<String> reachableFrom(Class<?> root) {
+		ClassLoader loader= root.getClassLoader();
+		if (loader == null)
+			return Collections.emptySet();
+		Set<String> result= new HashSet<String>();
+		LinkedList<String> pending= new LinkedList<String>();
+		pending.add(root.getName());
+		while (!pending.isEmpty()) {
+			String each= pending.removeFirst();
+			if (!result.add(each))
+				continue;
+			for (String dependency : direct(each, loader))
+				if (!result.contains(dependency))
+					pending.add(dependency);
+		}
+		return result;
+	}
+
+	private Set<String> direct(String className, ClassLoader loader) {
+		Set<String> result= fDirect.get(className);
+		if (result == null) {
+			result= read(className, loader);
+			fDirect.put(className, result);
+		}
+		return result;
+	}
+
+	private Set<String> read(String className, ClassLoader loader) {
+		URL resource= loader.getResource(className.replace('.', '/') + ".class");
+		if (resource == null || isJUnit(resource))
+			return Collections.emptySet();
+		try {
+			InputStream stream= resource.openStream();
+			try {
+				Set<String> result= new HashSet<String>();
+				for (String each : referencedClasses(className,
+						new DataInputStream(new BufferedInputStream(stream))))
+					if (isApplicationClass(each))
+						result.add(each);
+				result.remove(className);
+				return result;
+			} finally {
+				stream.close();
+			}
+		} catch (IOException e) {
+			return Collections.emptySet();
+		}
+	}
+
+	private boolean isJUnit(URL resource) {
+		return fJUnitLocation != null && resource.toString().startsWith(fJUnitLocation);
+	}
+
+	private static boolean isApplicationClass(String className) {
+		for (String each : PLATFORM_PREFIXES)
+			if (className.startsWith(each))
+				return false;
+		return true;
+	}
+
+	private static Set<String> referencedClasses(String className,
+			DataInputStream in) throws IOException {
+		Set<String> result= new HashSet<String>();
+		if (in.readInt() != 0xCAFEBABE)
+			return result;
+		in.readUnsignedShort(); // minor version
+		in.readUnsignedShort(); // major version
+		int count= in.readUnsignedShort();
+		String[] utf8= new String[count];
+		int[] classNames= new int[count];
+		boolean[] used= new boolean[count];
+		for (int i= 1; i < count; i++) {
+			int tag= in.readUnsignedByte();
+			switch (tag) {
+			case 1: // Utf8
+				utf8[i]= in.readUTF();
+				break;
+			case 7: // Class
+				classNames[i]= in.readUnsignedShort();
+				break;
+			case 9: // Fieldref
+			case 10: // Methodref
+			case 11: // InterfaceMethodref
+				mark(used, in.readUnsignedShort());
+				in.skipBytes(2);
+				break;
+			case 8: // String
+			case 16: // MethodType
+			case 19: // Module
+			case 20: // Package
+				in.skipBytes(2);
+				break;
+			case 15: // MethodHandle
+				in.skipBytes(3);
+				break;
+			case 3: // Integer
+			case 4: // Float
+			case 12: // NameAndType
+			case 17: // Dynamic
+			case 18: // InvokeDynamic
+				in.skipBytes(4);
+				break;
+			case 5: // Long
+			case 6: // Double
+				in.skipBytes(8);
+				i++;
+				break;
+			default:
+				return result;
+			}
+		}
+		try {
+			markUses(in, utf8, used);
+		} catch (IOException e) {
+			// unreadable past the constant pool: assume every class is used
+			Arrays.fill(used, true);
+		}
+		String nested= className + "$";
+		for (int i= 1; i < count; i++) {
+			String name= utf8At(utf8, classNames[i]);
+			if (name != null
+					&& (used[i] || !name.replace('/', '.').startsWith(nested)))
+				addTypes(name, true, result);
+		}
+		for (String each : utf8)
+			if (each != null)
+				addTypes(each, false, result);
+		return result;
+	}
+
+	/*
+	 * Marks the Class constants used by the class's declaration, its members
+	 * and their code. The lists of nested classes and nest members are
+	 * skipped: they name every class nested in this one, used or not.
+	 */
+	private static void markUses(DataInputStream in, String[] utf8,
+			boolean[] used) throws IOException {
+		in.readUnsignedShort(); // access flags
+		in.readUnsignedShort(); // this class
+		mark(used, in.readUnsignedShort()); // super class
+		int interfaces= in.readUnsignedShort();
+		for (int i= 0; i < interfaces; i++)
+			mark(used, in.readUnsignedShort());
+		for (int kind= 0; kind < 2; kind++) { // fields, then methods
+			int members= in.readUnsignedShort();
+			for (int i= 0; i < members; i++) {
+				in.readUnsignedShort(); // access flags
+				in.readUnsignedShort(); // name
+				in.readUnsignedShort(); // descriptor
+				markAttributeUses(in, utf8, used);
+			}
+		}
+		markAttributeUses(in, utf8, used);
+	}
+
+	private static void markAttributeUses(DataInputStream in, String[] utf8,
+			boolean[] used) throws IOException {
+		int count= in.readUnsignedShort();
+		for (int i= 0; i < count; i++) {
+			String name= utf8At(utf8, in.readUnsignedShort());
+			byte[] bytes= new byte[in.readInt()];
+			in.readFully(bytes);
+			DataInputStream attribute= new DataInputStream(
+					new ByteArrayInputStream(bytes));
+			if ("Code".equals(name))
+				markCodeUses(attribute, utf8, used);
+			else if ("Exceptions".equals(name)) {
+				int exceptions= attribute.readUnsignedShort();
+				for (int j= 0; j < exceptions; j++)
+					mark(used, attribute.readUnsignedShort());
+			} else if ("EnclosingMethod".equals(name))
+				mark(used, attribute.readUnsignedShort());
+			else if ("BootstrapMethods".equals(name)) {
+				int methods= attribute.readUnsignedShort();
+				for (int j= 0; j < methods; j++) {
+					attribute.readUnsignedShort(); // method handle
+					int arguments= attribute.readUnsignedShort();
+					for (int k= 0; k < arguments; k++)
+						mark(used, attribute.readUnsignedShort());
+				}
+			}
+		}
+	}
+
+	private static void markCodeUses(DataInputStream in, String[] utf8,
+			boolean[] used) throws IOException {
+		in.readUnsignedShort(); // max stack
+		in.readUnsignedShort(); // max locals
+		byte[] code= new byte[in.readInt()];
+		in.readFully(code);
+		try {
+			markInstructionUses(code, used);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Malformed code");
+		}
+		int handlers= in.readUnsignedShort();
+		for (int i= 0; i < handlers; i++) {
+			in.skipBytes(6); // start, end and handler
+			mark(used, in.readUnsignedShort()); // catch type
+		}
+		markAttributeUses(in, utf8, used);
+	}
+
+	private static void markInstructionUses(byte[] code, boolean[] used) {
+		int pc= 0;
+		while (pc < code.length) {
+			int opcode= code[pc] & 0xff;
+			switch (opcode) {
+			case 0x12: // ldc
+				mark(used, code[pc + 1] & 0xff);
+				pc+= 2;
+				break;
+			case 0x13: // ldc_w
+			case 0xbb: // new
+			case 0xbd: // anewarray
+			case 0xc0: // checkcast
+			case 0xc1: // instanceof
+				mark(used, unsignedShort(code, pc + 1));
+				pc+= 3;
+				break;
+			case 0xc5: // multianewarray
+				mark(used, unsignedShort(code, pc + 1));
+				pc+= 4;
+				break;
+			case 0xaa: { // tableswitch
+				int operands= (pc + 4) & ~3;
+				int low= integer(code, operands + 4);
+				int high= integer(code, operands + 8);
+				pc= operands + 12 + 4 * (high - low + 1);
+				break;
+			}
+			case 0xab: { // lookupswitch
+				int operands= (pc + 4) & ~3;
+				pc= operands + 8 + 8 * integer(code, operands + 4);
+				break;
+			}
+			case 0xc4: // wide
+				pc+= (code[pc + 1] & 0xff) == 0x84 ? 6 : 4;
+				break;
+			default:
+				pc+= instructionLength(opcode);
+			}
+		}
+	}
+
+	private static int instructionLength(int opcode) {
+		if (opcode == 0x10 || opcode >= 0x15 && opcode <= 0x19
+				|| opcode >= 0x36 && opcode <= 0x3a || opcode == 0xa9
+				|| opcode == 0xbc)
+			return 2;
+		if (opcode == 0x11 || opcode == 0x14 || opcode == 0x84
+				|| opcode >= 0x99 && opcode <= 0xa8 || opcode >= 0xb2
+				&& opcode <= 0xb8 || opcode == 0xc6 || opcode == 0xc7)
+			return 3;
+		if (opcode == 0xb9 || opcode == 0xba || opcode == 0xc8
+				|| opcode == 0xc9)
+			return 5;
+		return 1;
+	}
+
+	private static int unsignedShort(byte[] code, int offset) {
+		return (code[offset] & 0xff) << 8 | code[offset + 1] & 0xff;
+	}
+
+	private static int integer(byte[] code, int offset) {
+		return unsignedShort(code, offset) << 16 | unsignedShort(code, offset + 2);
+	}
+
+	private static void mark(boolean[] used, int index) {
+		if (index > 0 && index < used.length)
+			used[index]= true;
+	}
+
+	private static String utf8At(String[] utf8, int index) {
+		return index > 0 && index < utf8.length ? utf8[index] : null;
+	}
+
+	/*
+	 * Adds the classes named in an internal class name (if bare) or in a
+	 * field or method descriptor or signature ("Lcom/example/Type;")
+	 */
+	private static void addTypes(String text, boolean bare, Set<String> result) {
+		if (text == null)
+			return;
+		if (bare && !text.startsWith("[")) {
+			result.add(text.replace('/', '.'));
+			return;
+		}
+		int start= text.indexOf('L');
+		while (start >= 0) {
+			int end= start + 1;
+			while (end < text.length() && isNamePart(text.charAt(end)))
+				end++;
+			if (end < text.length() && end > start + 1
+					&& (text.charAt(end) == ';' || text.charAt(end) == '<'))
+				result.add(text.substring(start + 1, end).replace('/', '.'));
+			start= text.indexOf('L', end);
+		}
+	}
+
+	private static boolean isNamePart(char c) {
+		return c == '/' || c == '$' || c == '_' || Character.isLetterOrDigit(c);
+	}
+}
@@ -0,0 +1,129 @@
+package org.junit.experimental.max;
+
+import java.util.Arrays;
+
+/**
+ * A compact summary of the durations of a test's recent executions:
+ * exponentially weighted moving average and variance, and the median and
+ * 95th percentile of the last {@value #SAMPLES} executions. Unlike the
+ * duration of the last execution alone, the summary is not thrown off by a
+ * single slow run (a GC pause, a busy machine).
+ *
+ * Instances are immutable; durations are in nanoseconds.
+ */
+public final class DurationStatistics {
+	/**
+	 * The weight of the newest execution in the moving average and variance
+	 */
+	public static final double ALPHA= 0.25;
+
+	/**
+	 * The number of recent executions the percentiles are computed from
+	 */
+	public static final int SAMPLES= 16;
+
+	private final int fCount;
+
+	private final double fMean;
+
+	private final double fVariance;
+
+	// most recent last
+	private final long[] fRecent;
+
+	private final long fMedian;
+
+	private final long fPercentile95;
+
+	/**
+	 * @return the statistics of a single execution taking {@code duration}
+	 */
+	public static DurationStatistics of(long duration) {
+		return new DurationStatistics(1, duration, 0, new long[] { duration });
+	}
+
+	DurationStatistics(int count, double mean, double variance, long[] recent) {
+		fCount= count;
+		fMean= mean;
+		fVariance= variance;
+		fRecent= recent;
+		long[] sorted= recent.clone();
+		Arrays.sort(sorted);
+		fMedian= percentile(sorted, 0.5);
+		fPercentile95= percentile(sorted, 0.95);
+	}
+
+	private static long percentile(long[] sorted, double fraction) {
+		if (sorted.length == 0)
+			return 0;
+		int rank= (int) Math.ceil(fraction * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+
+	/**
+	 * @return these statistics updated with one more execution taking
+	 * {@code duration}
+	 */
+	public DurationStatistics plus(long duration) {
+		double difference= duration - fMean;
+		double increment= ALPHA * difference;
+		double variance= (1 - ALPHA) * (fVariance + difference * increment);
+		int kept= Math.min(fRecent.length, SAMPLES - 1);
+		long[] recent= new long[kept + 1];
+		System.arraycopy(fRecent, fRecent.length - kept, recent, 0, kept);
+		recent[kept]= duration;
+		return new DurationStatistics(fCount + 1, fMean + increment, variance, recent);
+	}
+
+	/**
+	 * @return the number of executions summarized
+	 */
+	public int getCount() {
+		return fCount;
+	}
+
+	/**
+	 * @return the exponentially weighted moving average of the durations
+	 */
+	public double getMean() {
+		return fMean;
+	}
+
+	/**
+	 * @return the exponentially weighted moving variance of the durations
+	 */
+	public double getVariance() {
+		return fVariance;
+	}
+
+	/**
+	 * @return the square root of {@link #getVariance()}
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(fVariance);
+	}
+
+	/**
+	 * @return the median duration of the recent executions
+	 */
+	public long getMedian() {
+		return fMedian;
+	}
+
+	/**
+	 * @return the 95th percentile of the durations of the recent executions
+	 */
+	public long getPercentile95() {
+		return fPercentile95;
+	}
+
+	long[] getRecent() {
+		return fRecent;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d runs, mean %.0fns, sd %.0fns, p50 %dns, p95 %dns",
+				fCount, fMean, getStandardDeviation(), fMedian, fPercentile95);
+	}
+}
@@ -0,0 +1,334 @@
+package org.junit.experimental.max;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.experimental.ParallelComputer;
+import org.junit.experimental.ParallelScheduler;
+import org.junit.runner.Computer;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunListener;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+
+/**
+ * A {@link ParallelComputer} that hands the longest classes or methods to the
+ * workers first (longest processing time first), using the median durations
+ * recorded in a {@link MaxHistory}. Starting the long tests early keeps a few
+ * of them from being left over, on a single worker, at the end of the run.
+ * Tests without history are assumed to take the average known time.
+ *
+ * {@link #makespanListener(PrintStream)} reports the makespan (the wall-clock
+ * time of the run) predicted from the history next to the actual one. The
+ * prediction replays how a {@link ParallelScheduler} dispatches the tests:
+ * the workers take them in order, while each runner waiting for its
+ * children takes back the ones still queued, shortest (most recently
+ * scheduled) first, and each parallel class is finished before the next
+ * class starts unless classes run in parallel too. Add
+ * {@link MaxHistory#listener()} to the run to keep the history up to date.
+ *
+ * WARNING: still experimental, may go away.
+ */
+public class LongestFirstComputer extends Computer {
+	private final MaxHistory fHistory;
+
+	private final boolean fClasses;
+
+	private final boolean fMethods;
+
+	private final int fParallelism;
+
+	private final Computer fDelegate;
+
+	private volatile long fPredictedMakespan= -1;
+
+	/**
+	 * Creates a computer that runs classes, methods, or both in parallel on at
+	 * most {@code parallelism} worker threads
+	 */
+	public LongestFirstComputer(MaxHistory history, boolean classes,
+			boolean methods, int parallelism) {
+		fHistory= history;
+		fClasses= classes;
+		fMethods= methods;
+		fParallelism= parallelism;
+		fDelegate= new ParallelComputer(classes, methods,
+				new ParallelScheduler(parallelism));
+	}
+
+	@Override
+	public Runner getSuite(RunnerBuilder builder, Class<?>[] classes)
+			throws InitializationError {
+		Runner suite= fDelegate.getSuite(builder, classes);
+		Estimates estimates= new Estimates(suite.getDescription());
+		new Sorter(estimates).apply(suite);
+		fPredictedMakespan= new Dispatch(estimates).makespan(suite.getDescription());
+		return suite;
+	}
+
+	/**
+	 * @return the makespan in nanoseconds predicted for the last suite
+	 * built, or -1 if none has been built
+	 */
+	public long getPredictedMakespan() {
+		return fPredictedMakespan;
+	}
+
+	/**
+	 * @return a listener that prints the predicted and the actual makespan
+	 * to {@code writer} when the run finishes
+	 */
+	public RunListener makespanListener(final PrintStream writer) {
+		return new RunListener() {
+			private long fStart;
+
+			@Override
+			public void testRunStarted(Description description) {
+				fStart= System.nanoTime();
+			}
+
+			@Override
+			public void testRunFinished(Result result) {
+				writer.println(String.format(
+						"Predicted makespan: %d ms, actual: %d ms",
+						fPredictedMakespan / 1000000,
+						(System.nanoTime() - fStart) / 1000000));
+			}
+		};
+	}
+
+	/*
+	 * Replays the dispatch of a ParallelScheduler on simulated threads: the
+	 * thread that runs the suite, and fParallelism workers. Each thread runs
+	 * a stack of frames, as the real one nests runners. A parallel frame
+	 * queues its children on the shared queue, takes back its own unclaimed
+	 * children last first, and then waits for the ones the workers took.
+	 * Idle workers take tasks from the front of the queue.
+	 */
+	private class Dispatch {
+		private final Estimates fEstimates;
+
+		private final LinkedList<Task> fQueue= new LinkedList<Task>();
+
+		private long fNow= 0;
+
+		Dispatch(Estimates estimates) {
+			fEstimates= estimates;
+		}
+
+		private class Task {
+			final Description fDescription;
+
+			final Frame fOwner;
+
+			boolean fClaimed= false;
+
+			Task(Description description, Frame owner) {
+				fDescription= description;
+				fOwner= owner;
+			}
+		}
+
+		private class Frame {
+			final Description fDescription;
+
+			final int fDepth;
+
+			final Task fTask;
+
+			long fEnd;
+
+			int fNext= 0;
+
+			List<Task> fTasks= null;
+
+			int fPending= 0;
+
+			Frame(Description description, int depth, Task task) {
+				fDescription= description;
+				fDepth= depth;
+				fTask= task;
+				fEnd= fNow + (isLeaf() ? fEstimates.estimate(description) : 0);
+			}
+
+			boolean isLeaf() {
+				return fDescription.getChildren().isEmpty();
+			}
+
+			boolean isParallel() {
+				return fDepth == 0 && fClasses || fDepth == 1 && fMethods;
+			}
+		}
+
+		long makespan(Description suite) {
+			LinkedList<Frame> caller= new LinkedList<Frame>();
+			List<LinkedList<Frame>> workers= new ArrayList<LinkedList<Frame>>();
+			for (int i= 0; i < fParallelism; i++)
+				workers.add(new LinkedList<Frame>());
+			caller.push(new Frame(suite, 0, null));
+			while (!caller.isEmpty()) {
+				boolean progressed= true;
+				while (progressed && !caller.isEmpty()) {
+					progressed= false;
+					// idle workers claim queued tasks before their owners can
+					for (LinkedList<Frame> each : workers)
+						if (each.isEmpty())
+							progressed|= step(each);
+					for (LinkedList<Frame> each : workers)
+						if (!each.isEmpty())
+							progressed|= step(each);
+					progressed|= step(caller);
+				}
+				if (!caller.isEmpty() && !advance(caller, workers))
+					break;
+			}
+			return fNow;
+		}
+
+		/*
+		 * Moves the clock to the next end of a running test
+		 */
+		private boolean advance(LinkedList<Frame> caller,
+				List<LinkedList<Frame>> workers) {
+			long next= Long.MAX_VALUE;
+			for (LinkedList<Frame> each : workers)
+				next= nextEnd(each, next);
+			next= nextEnd(caller, next);
+			if (next == Long.MAX_VALUE)
+				return false;
+			fNow= next;
+			return true;
+		}
+
+		private long nextEnd(LinkedList<Frame> thread, long next) {
+			if (thread.isEmpty() || !thread.peek().isLeaf())
+				return next;
+			long end= thread.peek().fEnd;
+			return end > fNow ? Math.min(end, next) : next;
+		}
+
+		/*
+		 * Takes one step on a thread that needs no time to pass, and returns
+		 * whether it could
+		 */
+		private boolean step(LinkedList<Frame> thread) {
+			if (thread.isEmpty()) {
+				while (!fQueue.isEmpty()) {
+					Task task= fQueue.poll();
+					if (claim(thread, task))
+						return true;
+				}
+				return false;
+			}
+			Frame frame= thread.peek();
+			if (frame.isLeaf()) {
+				if (frame.fEnd > fNow)
+					return false;
+				pop(thread);
+				return true;
+			}
+			List<Description> children= frame.fDescription.getChildren();
+			if (!frame.isParallel()) {
+				if (frame.fNext < children.size())
+					thread.push(new Frame(children.get(frame.fNext++),
+							frame.fDepth + 1, null));
+				else
+					pop(thread);
+				return true;
+			}
+			if (frame.fTasks == null) {
+				frame.fTasks= new ArrayList<Task>();
+				for (Description each : children)
+					frame.fTasks.add(new Task(each, frame));
+				fQueue.addAll(frame.fTasks);
+				frame.fPending= children.size();
+				frame.fNext= children.size() - 1;
+				return true;
+			}
+			while (frame.fNext >= 0)
+				if (claim(thread, frame.fTasks.get(frame.fNext--)))
+					return true;
+			if (frame.fPending > 0)
+				return false;
+			pop(thread);
+			return true;
+		}
+
+		private boolean claim(LinkedList<Frame> thread, Task task) {
+			if (task.fClaimed)
+				return false;
+			task.fClaimed= true;
+			thread.push(new Frame(task.fDescription, task.fOwner.fDepth + 1, task));
+			return true;
+		}
+
+		private void pop(LinkedList<Frame> thread) {
+			Frame frame= thread.pop();
+			if (frame.fTask != null)
+				frame.fTask.fOwner.fPending--;
+		}
+	}
+
+	/*
+	 * Orders descriptions longest first. A test is estimated by its median
+	 * duration; a suite by the sum of its tests.
+	 */
+	private class Estimates implements Comparator<Description> {
+		private final Map<Description, Long> fEstimates= new HashMap<Description, Long>();
+
+		private final long fUnknown;
+
+		Estimates(Description root) {
+			List<Description> tests= new ArrayList<Description>();
+			collectTests(root, tests);
+			long known= 0;
+			int count= 0;
+			for (Description each : tests) {
+				DurationStatistics statistics= fHistory.getDurationStatistics(each);
+				if (statistics != null) {
+					known+= statistics.getMedian();
+					count++;
+				}
+			}
+			fUnknown= count == 0 ? 0 : known / count;
+		}
+
+		private void collectTests(Description description, List<Description> tests) {
+			if (description.isTest())
+				tests.add(description);
+			for (Description each : description.getChildren())
+				collectTests(each, tests);
+		}
+
+		long estimate(Description description) {
+			Long result= fEstimates.get(description);
+			if (result != null)
+				return result;
+			long estimate;
+			if (description.isTest()) {
+				DurationStatistics statistics= fHistory.getDurationStatistics(description);
+				estimate= statistics == null ? fUnknown : statistics.getMedian();
+			} else {
+				estimate= 0;
+				for (Description each : description.getChildren())
+					estimate+= estimate(each);
+			}
+			fEstimates.put(description, estimate);
+			return estimate;
+		}
+
+		public int compare(Description o1, Description o2) {
+			long e1= estimate(o1);
+			long e2= estimate(o2);
+			return e1 > e2 ? -1 : e1 < e2 ? 1 : 0;
+		}
+	}
+}
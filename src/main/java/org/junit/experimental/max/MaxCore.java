@@ -3,7 +3,12 @@ package org.junit.experimental.max;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import junit.framework.TestSuite;
 
@@ -15,6 +20,11 @@ import org.junit.runner.JUnitCore;
 import org.junit.runner.Request;
 import org.junit.runner.Result;
 import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
 import org.junit.runners.Suite;
 import org.junit.runners.model.InitializationError;
 
@@ -101,8 +111,20 @@ public class MaxCore {
 
 	private Request constructLeafRequest(List<Description> leaves) {
 		final List<Runner> runners = new ArrayList<Runner>();
-		for (Description each : leaves)
-			runners.add(buildRunner(each));
+		Map<Class<?>, Runner> classRunners= new HashMap<Class<?>, Runner>();
+		List<Description> segment= new ArrayList<Description>();
+		Set<Description> inSegment= new HashSet<Description>();
+		for (Description each : leaves) {
+			if (!segment.isEmpty() && (!sameClass(segment.get(0), each) || inSegment.contains(each))) {
+				addRunners(segment, classRunners, runners);
+				segment= new ArrayList<Description>();
+				inSegment.clear();
+			}
+			segment.add(each);
+			inSegment.add(each);
+		}
+		if (!segment.isEmpty())
+			addRunners(segment, classRunners, runners);
 		return new Request() {
 			@Override
 			public Runner getRunner() {
@@ -115,6 +137,125 @@ public class MaxCore {
 		};
 	}
 
+	private boolean sameClass(Description first, Description second) {
+		if (isSpecial(first) || isSpecial(second))
+			return false;
+		return first.getClassName().equals(second.getClassName());
+	}
+
+	private boolean isSpecial(Description leaf) {
+		return leaf.getMethodName() == null
+				|| leaf.toString().equals("TestSuite with 0 tests")
+				|| leaf.toString().startsWith(MALFORMED_JUNIT_3_TEST_CLASS_PREFIX);
+	}
+
+	/*
+	 * Adds the runners for consecutive leaves of a single class. The runner
+	 * for the class is built once and shared by all the class's segments:
+	 * each segment narrows it to its own leaves when it runs. Other runners,
+	 * such as those of JUnit 3.8 classes, may not be able to sort their
+	 * tests, so each leaf gets a runner of its own.
+	 */
+	private void addRunners(List<Description> segment,
+			Map<Class<?>, Runner> classRunners, List<Runner> runners) {
+		Description first= segment.get(0);
+		if (isSpecial(first)) {
+			runners.add(buildRunner(first));
+			return;
+		}
+		Class<?> type= first.getTestClass();
+		if (type == null)
+			throw new RuntimeException("Can't build a runner from description [" + first + "]");
+		Runner classRunner= classRunners.get(type);
+		if (classRunner == null) {
+			classRunner= Request.aClass(type).getRunner();
+			classRunners.put(type, classRunner);
+		}
+		if (classRunner instanceof ParentRunner<?>)
+			runners.add(new SegmentRunner((ParentRunner<?>) classRunner,
+					first.getClassName(), new SegmentOrder(segment)));
+		else
+			for (Description each : segment)
+				runners.add(buildRunner(each));
+	}
+
+	/**
+	 * Selects the leaves of a segment, and sorts them in the order of the
+	 * segment
+	 */
+	private static class SegmentOrder extends Filter implements Comparator<Description> {
+		private final Map<Description, Integer> fRanks= new HashMap<Description, Integer>();
+
+		private final List<Description> fLeaves;
+
+		SegmentOrder(List<Description> leaves) {
+			fLeaves= leaves;
+			for (int i= 0; i < leaves.size(); i++)
+				fRanks.put(leaves.get(i), i);
+		}
+
+		@Override
+		public boolean shouldRun(Description description) {
+			return rank(description) != Integer.MAX_VALUE;
+		}
+
+		@Override
+		public String describe() {
+			return "leaves " + fLeaves;
+		}
+
+		public int compare(Description o1, Description o2) {
+			int rank1= rank(o1);
+			int rank2= rank(o2);
+			return rank1 < rank2 ? -1 : rank1 > rank2 ? 1 : 0;
+		}
+
+		private int rank(Description description) {
+			Integer rank= fRanks.get(description);
+			if (rank != null)
+				return rank;
+			int result= Integer.MAX_VALUE;
+			for (Description each : description.getChildren())
+				result= Math.min(result, rank(each));
+			return result;
+		}
+	}
+
+	private static class SegmentRunner extends Runner {
+		private final ParentRunner<?> fClassRunner;
+
+		private final String fClassName;
+
+		private final SegmentOrder fOrder;
+
+		SegmentRunner(ParentRunner<?> classRunner, String className, SegmentOrder order) {
+			fClassRunner= classRunner;
+			fClassName= className;
+			fOrder= order;
+		}
+
+		@Override
+		public Description getDescription() {
+			Description description= Description.createSuiteDescription(fClassName);
+			for (Description each : fOrder.fLeaves)
+				description.addChild(each);
+			return description;
+		}
+
+		@Override
+		public void run(RunNotifier notifier) {
+			synchronized (fClassRunner) {
+				try {
+					fClassRunner.filter(fOrder);
+				} catch (NoTestsRemainException e) {
+					return;
+				}
+				fClassRunner.sort(new Sorter(fOrder));
+				fClassRunner.run(notifier);
+			}
+		}
+	}
+
 	private Runner buildRunner(Description each) {
 		if (each.toString().equals("TestSuite with 0 tests"))
 			return Suite.emptySuite();
@@ -1,18 +1,23 @@
 package org.junit.experimental.max;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
+import java.io.RandomAccessFile;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.junit.runner.Description;
 import org.junit.runner.Result;
+import org.junit.runner.manipulation.ShardFilter;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 
@@ -20,87 +25,296 @@ import org.junit.runner.notification.RunListener;
  * Stores a subset of the history of each test:
  * <ul>
  * <li>Last failure timestamp
- * <li>Duration of last execution
+ * <li>{@link DurationStatistics} of recent executions
  * </ul>
+ *
+ * The history is kept in an append-only log: every duration and failure is
+ * appended (and flushed) as soon as the test finishes, so a crash loses at
+ * most the record being written. A torn record at the end of the log is
+ * dropped when the log is read; a file that is not a history log at all is
+ * moved aside rather than deleted. The log is read on first use. Once it
+ * has grown to several times the size of the history it holds, it is
+ * rewritten, one record per test, when it is read or at the end of a run.
  */
-public class MaxHistory implements Serializable {
-	private static final long serialVersionUID= 1L;
+public class MaxHistory {
+	private static final int MAGIC= 0x4a4d4831; // "JMH1"
+
+	private static final byte DURATION= 'D';
+
+	private static final byte FAILURE= 'F';
+
+	private static final byte STATISTICS= 'S';
+
+	private static final int MAX_KEY_LENGTH= 1 << 20;
+
+	private static final int COMPACTION_THRESHOLD= 10000;
+
+	private static final int COMPACTION_FACTOR= 4;
 
 	/**
-	 * Loads a {@link MaxHistory} from {@code file}, or generates a new one that
-	 * will be saved to {@code file}.
+	 * Returns a {@link MaxHistory} stored in {@code file}. The file is read
+	 * on first use, and created if it does not exist.
 	 */
 	public static MaxHistory forFolder(File file) {
-		if (file.exists())
+		return new MaxHistory(file);
+	}
+
+	private final Map<String, DurationStatistics> fDurations= new HashMap<String, DurationStatistics>();
+
+	private final Map<String, Long> fFailureTimestamps= new HashMap<String, Long>();
+
+	private final File fHistoryStore;
+
+	private boolean fLoaded= false;
+
+	private int fRecords= 0;
+
+	private DataOutputStream fLog= null;
+
+	private MaxHistory(File storedResults) {
+		fHistoryStore= storedResults;
+	}
+
+	private void ensureLoaded() {
+		if (fLoaded)
+			return;
+		fLoaded= true;
+		if (fHistoryStore.exists())
 			try {
-				return readHistory(file);
-			} catch (CouldNotReadCoreException e) {
-				e.printStackTrace();
-				file.delete();
+				load();
+				compactIfNeeded();
+			} catch (IOException e) {
+				new CouldNotReadCoreException(e).printStackTrace();
 			}
-		return new MaxHistory(file);
 	}
 
-	private static MaxHistory readHistory(File storedResults)
-			throws CouldNotReadCoreException {
+	private void load() throws IOException {
+		long valid= 0;
+		boolean recognized= true;
+		DataInputStream in= new DataInputStream(new BufferedInputStream(
+				new FileInputStream(fHistoryStore)));
 		try {
-			FileInputStream file= new FileInputStream(storedResults);
-			try {
-				ObjectInputStream stream= new ObjectInputStream(file);
-				try {
-					return (MaxHistory) stream.readObject();
-				} finally {
-					stream.close();
+			if (in.readInt() != MAGIC)
+				recognized= false;
+			else {
+				valid= 4;
+				for (;;) {
+					int type= in.read();
+					if (type == -1)
+						break;
+					int length= in.readInt();
+					if ((type != DURATION && type != FAILURE && type != STATISTICS)
+							|| length < 0 || length > MAX_KEY_LENGTH)
+						break;
+					byte[] bytes= new byte[length];
+					in.readFully(bytes);
+					String key= new String(bytes, "UTF-8");
+					if (type == STATISTICS) {
+						DurationStatistics statistics= readStatistics(in);
+						if (statistics == null)
+							break;
+						fDurations.put(key, statistics);
+						fRecords++;
+						valid+= 1 + 4 + length + 4 + 8 + 8 + 4
+								+ 8 * statistics.getRecent().length;
+					} else {
+						apply((byte) type, key, in.readLong());
+						valid+= 1 + 4 + length + 8;
+					}
 				}
-			} finally {
-				file.close();
 			}
-		} catch (Exception e) {
-			throw new CouldNotReadCoreException(e);
+		} catch (EOFException e) {
+			// a record torn by a crash: keep everything before it
+		} finally {
+			in.close();
 		}
+		if (!recognized)
+			setAside();
+		else if (valid < fHistoryStore.length())
+			truncate(valid);
 	}
 
-	private final Map<String, Long> fDurations= new HashMap<String, Long>();
+	private void setAside() throws IOException {
+		File corrupt= new File(fHistoryStore.getPath() + ".corrupt");
+		corrupt.delete();
+		if (!fHistoryStore.renameTo(corrupt))
+			throw new IOException("Could not move unreadable history "
+					+ fHistoryStore + " aside");
+		System.err.println("Unreadable history moved to " + corrupt);
+	}
 
-	private final Map<String, Long> fFailureTimestamps= new HashMap<String, Long>();
+	private void truncate(long length) throws IOException {
+		RandomAccessFile file= new RandomAccessFile(fHistoryStore, "rw");
+		try {
+			file.setLength(length);
+		} finally {
+			file.close();
+		}
+	}
 
-	private final File fHistoryStore;
+	private static DurationStatistics readStatistics(DataInputStream in)
+			throws IOException {
+		int count= in.readInt();
+		double mean= in.readDouble();
+		double variance= in.readDouble();
+		int samples= in.readInt();
+		if (samples < 1 || samples > DurationStatistics.SAMPLES)
+			return null;
+		long[] recent= new long[samples];
+		for (int i= 0; i < samples; i++)
+			recent[i]= in.readLong();
+		return new DurationStatistics(count, mean, variance, recent);
+	}
 
-	private MaxHistory(File storedResults) {
-		fHistoryStore= storedResults;
+	private static void writeStatistics(DataOutputStream log, String key,
+			DurationStatistics statistics) throws IOException {
+		byte[] bytes= key.getBytes("UTF-8");
+		long[] recent= statistics.getRecent();
+		log.writeByte(STATISTICS);
+		log.writeInt(bytes.length);
+		log.write(bytes);
+		log.writeInt(statistics.getCount());
+		log.writeDouble(statistics.getMean());
+		log.writeDouble(statistics.getVariance());
+		log.writeInt(recent.length);
+		for (long each : recent)
+			log.writeLong(each);
+	}
+
+	private void apply(byte type, String key, long value) {
+		if (type == DURATION) {
+			DurationStatistics previous= fDurations.get(key);
+			fDurations.put(key, previous == null ? DurationStatistics.of(value)
+					: previous.plus(value));
+		} else
+			fFailureTimestamps.put(key, value);
+		fRecords++;
+	}
+
+	private synchronized void append(byte type, Description description,
+			long value) throws IOException {
+		ensureLoaded();
+		String key= description.toString();
+		apply(type, key, value);
+		if (fLog == null)
+			fLog= openLog(fHistoryStore, true);
+		write(fLog, type, key, value);
+		fLog.flush();
+	}
+
+	private static DataOutputStream openLog(File file, boolean append)
+			throws IOException {
+		boolean empty= !append || !file.exists() || file.length() == 0;
+		DataOutputStream log= new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file, append)));
+		if (empty)
+			log.writeInt(MAGIC);
+		return log;
+	}
+
+	private static void write(DataOutputStream log, byte type, String key,
+			long value) throws IOException {
+		byte[] bytes= key.getBytes("UTF-8");
+		log.writeByte(type);
+		log.writeInt(bytes.length);
+		log.write(bytes);
+		log.writeLong(value);
+	}
+
+	private synchronized void closeLog() throws IOException {
+		if (fLog == null)
+			return;
+		fLog.close();
+		fLog= null;
 	}
 
-	private void save() throws IOException {
-		ObjectOutputStream stream= new ObjectOutputStream(new FileOutputStream(
-				fHistoryStore));
-		stream.writeObject(this);
-		stream.close();
+	private synchronized void compactIfNeeded() throws IOException {
+		if (fRecords < COMPACTION_THRESHOLD
+				|| fRecords < COMPACTION_FACTOR * (fDurations.size() + fFailureTimestamps.size()))
+			return;
+		File snapshot= new File(fHistoryStore.getPath() + ".tmp");
+		FileOutputStream file= new FileOutputStream(snapshot);
+		DataOutputStream out= new DataOutputStream(new BufferedOutputStream(file));
+		try {
+			out.writeInt(MAGIC);
+			for (Map.Entry<String, DurationStatistics> each : fDurations.entrySet())
+				writeStatistics(out, each.getKey(), each.getValue());
+			for (Map.Entry<String, Long> each : fFailureTimestamps.entrySet())
+				write(out, FAILURE, each.getKey(), each.getValue());
+			out.flush();
+			file.getFD().sync();
+			out.close();
+			boolean reopen= fLog != null;
+			closeLog();
+			if (!snapshot.renameTo(fHistoryStore)) {
+				fHistoryStore.delete();
+				if (!snapshot.renameTo(fHistoryStore))
+					throw new IOException("Could not replace " + fHistoryStore);
+			}
+			fRecords= fDurations.size() + fFailureTimestamps.size();
+			if (reopen)
+				fLog= openLog(fHistoryStore, true);
+		} finally {
+			out.close();
+			snapshot.delete();
+		}
 	}
 
-	Long getFailureTimestamp(Description key) {
+	synchronized Long getFailureTimestamp(Description key) {
+		ensureLoaded();
 		return fFailureTimestamps.get(key.toString());
 	}
 
-	void putTestFailureTimestamp(Description key, long end) {
-		fFailureTimestamps.put(key.toString(), end);
+	void putTestFailureTimestamp(Description key, long end) throws IOException {
+		append(FAILURE, key, end);
 	}
 
-	boolean isNewTest(Description key) {
+	synchronized boolean isNewTest(Description key) {
+		ensureLoaded();
 		return !fDurations.containsKey(key.toString());
 	}
 
-	Long getTestDuration(Description key) {
-		return fDurations.get(key.toString());
+	/**
+	 * @return the statistics of the durations of {@code test}, or null if it
+	 * has never been run
+	 */
+	public synchronized DurationStatistics getDurationStatistics(Description test) {
+		ensureLoaded();
+		return fDurations.get(test.toString());
+	}
+
+	/**
+	 * @return a filter that runs shard {@code shardIndex} of {@code
+	 * shardCount} shards of the tests of {@code suite}, balanced by their
+	 * median durations in this history
+	 * @see ShardFilter#balanced(int, int, Description, Map)
+	 */
+	public ShardFilter shardFilter(int shardIndex, int shardCount,
+			Description suite) {
+		Map<Description, Long> durations= new HashMap<Description, Long>();
+		addMedians(suite, durations);
+		return ShardFilter.balanced(shardIndex, shardCount, suite, durations);
 	}
 
-	void putTestDuration(Description description, long duration) {
-		fDurations.put(description.toString(), duration);
+	private void addMedians(Description description,
+			Map<Description, Long> durations) {
+		if (description.isTest()) {
+			DurationStatistics statistics= getDurationStatistics(description);
+			if (statistics != null)
+				durations.put(description, statistics.getMedian());
+		}
+		for (Description each : description.getChildren())
+			addMedians(each, durations);
+	}
+
+	void putTestDuration(Description description, long duration) throws IOException {
+		append(DURATION, description, duration);
 	}
 
 	private final class RememberingListener extends RunListener {
 		private long overallStart= System.currentTimeMillis();
 
-		private Map<Description, Long> starts= new HashMap<Description, Long>();
+		private Map<Description, Long> starts= new ConcurrentHashMap<Description, Long>();
 
 		@Override
 		public void testStarted(Description description) throws Exception {
@@ -111,7 +325,7 @@ public class MaxHistory implements Serializable {
 		@Override
 		public void testFinished(Description description) throws Exception {
 			long end= System.nanoTime();
-			long start= starts.get(description);
+			long start= starts.remove(description);
 			putTestDuration(description, end - start);
 		}
 
@@ -122,7 +336,8 @@ public class MaxHistory implements Serializable {
 
 		@Override
 		public void testRunFinished(Result result) throws Exception {
-			save();
+			closeLog();
+			compactIfNeeded();
 		}
 	}
 
@@ -137,7 +352,12 @@ public class MaxHistory implements Serializable {
 			int result= getFailure(o2).compareTo(getFailure(o1));
 			return result != 0 ? result
 			// Then shorter tests first
-					: getTestDuration(o1).compareTo(getTestDuration(o2));
+					: compare(getDurationStatistics(o1).getMedian(),
+							getDurationStatistics(o2).getMedian());
+		}
+
+		private int compare(long duration1, long duration2) {
+			return duration1 < duration2 ? -1 : duration1 > duration2 ? 1 : 0;
 		}
 
 		private Long getFailure(Description key) {
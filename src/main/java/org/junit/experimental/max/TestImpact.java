@@ -0,0 +1,199 @@
+package org.junit.experimental.max;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Remembers which application classes each test class depends on, so that a
+ * later run can be limited to the tests affected by a change:
+ * <pre>
+ * TestImpact impact= TestImpact.forFile(new File("impact.txt"));
+ * core.addListener(impact.listener()); // while running the full suite
+ * ...
+ * Request affected= request.filterWith(impact.affectedBy(changedClassNames,
+ * 		history, System.currentTimeMillis() - ONE_DAY));
+ * </pre>
+ *
+ * Dependencies are found by reading class files, transitively, from each
+ * test class. Classes used only by reflection (or named in configuration
+ * files) are not found, so a full run now and then is still wise.
+ *
+ * WARNING: still experimental, may go away.
+ */
+public class TestImpact {
+	/**
+	 * Returns a {@link TestImpact} stored in {@code file}. The file is read
+	 * on first use, and created if it does not exist.
+	 */
+	public static TestImpact forFile(File file) {
+		return new TestImpact(file);
+	}
+
+	private final File fStore;
+
+	private final ClassDependencies fDependencies= new ClassDependencies();
+
+	private Map<String, Set<String>> fTestClasses= null;
+
+	private TestImpact(File store) {
+		fStore= store;
+	}
+
+	private synchronized Map<String, Set<String>> testClasses() {
+		if (fTestClasses == null) {
+			fTestClasses= new HashMap<String, Set<String>>();
+			if (fStore.exists())
+				try {
+					load();
+				} catch (IOException e) {
+					new CouldNotReadCoreException(e).printStackTrace();
+				}
+		}
+		return fTestClasses;
+	}
+
+	private void load() throws IOException {
+		BufferedReader reader= new BufferedReader(new InputStreamReader(
+				new FileInputStream(fStore), "UTF-8"));
+		try {
+			String line;
+			while ((line= reader.readLine()) != null) {
+				String[] names= line.split(" ");
+				if (names.length > 0 && names[0].length() > 0)
+					fTestClasses.put(names[0], new HashSet<String>(Arrays.asList(names)));
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private synchronized void save() throws IOException {
+		File snapshot= new File(fStore.getPath() + ".tmp");
+		Writer writer= new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(snapshot), "UTF-8"));
+		try {
+			for (Map.Entry<String, Set<String>> each : testClasses().entrySet()) {
+				writer.write(each.getKey());
+				for (String dependency : each.getValue())
+					if (!dependency.equals(each.getKey())) {
+						writer.write(' ');
+						writer.write(dependency);
+					}
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+		if (!snapshot.renameTo(fStore)) {
+			fStore.delete();
+			if (!snapshot.renameTo(fStore))
+				throw new IOException("Could not replace " + fStore);
+		}
+	}
+
+	private synchronized void record(Class<?> testClass) {
+		testClasses().put(testClass.getName(), fDependencies.reachableFrom(testClass));
+	}
+
+	/**
+	 * @return the names of the application classes {@code testClass} was
+	 * found to depend on (including itself) when its tests last ran, or null
+	 * if its tests have not been run with {@link #listener()}
+	 */
+	public synchronized Set<String> getDependencies(String testClass) {
+		return testClasses().get(testClass);
+	}
+
+	/**
+	 * @return a listener that records the dependencies of the classes of the
+	 * tests that are run, and saves them when the run finishes
+	 */
+	public RunListener listener() {
+		return new RunListener() {
+			private final Set<Class<?>> fRecorded= new HashSet<Class<?>>();
+
+			@Override
+			public void testFinished(Description description) {
+				Class<?> testClass= description.getTestClass();
+				if (testClass == null)
+					return;
+				synchronized (fRecorded) {
+					if (!fRecorded.add(testClass))
+						return;
+				}
+				record(testClass);
+			}
+
+			@Override
+			public void testRunFinished(Result result) throws Exception {
+				save();
+			}
+		};
+	}
+
+	/**
+	 * Returns a filter that selects the tests affected by a change: tests
+	 * whose class depends on one of {@code changedClasses}, tests never run
+	 * with {@link #listener()}, and, if {@code history} is not null, tests
+	 * that are new to it or that failed at or after {@code failedSince}.
+	 *
+	 * @param changedClasses the fully qualified names of the changed classes
+	 * @param history a history of test runs, or null
+	 * @param failedSince a time in milliseconds since the epoch
+	 */
+	public Filter affectedBy(Collection<String> changedClasses,
+			final MaxHistory history, final long failedSince) {
+		final Set<String> changed= new HashSet<String>(changedClasses);
+		return new Filter() {
+			@Override
+			public boolean shouldRun(Description description) {
+				if (description.isTest())
+					return isAffected(description);
+				for (Description each : description.getChildren())
+					if (shouldRun(each))
+						return true;
+				return false;
+			}
+
+			private boolean isAffected(Description test) {
+				String testClass= test.getClassName();
+				Set<String> dependencies= testClass == null ? null
+						: getDependencies(testClass);
+				if (dependencies == null)
+					return true;
+				for (String each : changed)
+					if (dependencies.contains(each))
+						return true;
+				if (history == null)
+					return false;
+				if (history.isNewTest(test))
+					return true;
+				Long failure= history.getFailureTimestamp(test);
+				return failure != null && failure >= failedSince;
+			}
+
+			@Override
+			public String describe() {
+				return "tests affected by " + changed;
+			}
+		};
+	}
+}
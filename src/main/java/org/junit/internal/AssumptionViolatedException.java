@@ -8,12 +8,22 @@ import org.hamcrest.StringDescription;
 public class AssumptionViolatedException extends RuntimeException implements SelfDescribing {
 	private static final long serialVersionUID= 1L;
 
+	private final String fAssumption;
+
 	private final Object fValue;
 
 	private final Matcher<?> fMatcher;
 
 	public AssumptionViolatedException(Object value, Matcher<?> matcher) {
+		this(null, value, matcher);
+	}
+
+	/**
+	 * @param assumption describes the assumption that failed, or null
+	 */
+	public AssumptionViolatedException(String assumption, Object value, Matcher<?> matcher) {
 		super(value instanceof Throwable ? (Throwable) value : null);
+		fAssumption= assumption;
 		fValue= value;
 		fMatcher= matcher;
 	}
@@ -28,6 +38,8 @@ public class AssumptionViolatedException extends RuntimeException implements Sel
 	}
 
 	public void describeTo(Description description) {
+		if (fAssumption != null && fMatcher != null)
+			description.appendText(fAssumption + ": ");
 		if (fMatcher != null) {
 			description.appendText("got: ");
 			description.appendValue(fValue);
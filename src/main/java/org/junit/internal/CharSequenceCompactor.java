@@ -0,0 +1,138 @@
+package org.junit.internal;
+
+/**
+ * Shortens two differing character sequences to the part that differs,
+ * marked with brackets, and some common context around it:
+ * {@code "...cdef[g]hijk..."}. Works in time linear in the length of the
+ * sequences and reads them only through {@link CharSequence#charAt(int)}, so
+ * nothing is copied but the windows it renders. Unlike the compactors of
+ * {@link org.junit.ComparisonFailure} and {@link junit.framework.ComparisonFailure},
+ * which it reproduces for short differences, it also caps the differing
+ * part: a longer difference is shown by its beginning and end only. A null
+ * sequence stays null; one that is equal to, or has nothing in common with,
+ * the other is cut to the same bound.
+ */
+public class CharSequenceCompactor {
+	/**
+	 * The longest differing part shown by default
+	 */
+	public static final int DEFAULT_MAX_DELTA_LENGTH= 500;
+
+	private static final String ELLIPSIS= "...";
+
+	private static final String DELTA_END= "]";
+
+	private static final String DELTA_START= "[";
+
+	private final int fContextLength;
+
+	private final int fMaxDeltaLength;
+
+	private final CharSequence fExpected;
+
+	private final CharSequence fActual;
+
+	private final boolean fCompactable;
+
+	private int fPrefix;
+
+	private int fSuffix;
+
+	/**
+	 * @param contextLength the number of common characters shown on either
+	 * side of the difference
+	 * @param maxDeltaLength the number of differing characters shown at most
+	 */
+	public CharSequenceCompactor(int contextLength, int maxDeltaLength,
+			CharSequence expected, CharSequence actual) {
+		fContextLength= contextLength;
+		fMaxDeltaLength= maxDeltaLength;
+		fExpected= expected;
+		fActual= actual;
+		fCompactable= expected != null && actual != null && findDifference();
+	}
+
+	/**
+	 * @return whether neither sequence is null and they differ
+	 */
+	public boolean areDifferent() {
+		return fCompactable;
+	}
+
+	/**
+	 * @return the compacted expected sequence, or null if it was null
+	 */
+	public String getExpected() {
+		return compact(fExpected);
+	}
+
+	/**
+	 * @return the compacted actual sequence, or null if it was null
+	 */
+	public String getActual() {
+		return compact(fActual);
+	}
+
+	/*
+	 * Finds the common prefix and suffix as the original compactors did:
+	 * fSuffix is one more than the length of the common suffix.
+	 */
+	private boolean findDifference() {
+		int expectedLength= fExpected.length();
+		int actualLength= fActual.length();
+		int end= Math.min(expectedLength, actualLength);
+		for (fPrefix= 0; fPrefix < end; fPrefix++)
+			if (fExpected.charAt(fPrefix) != fActual.charAt(fPrefix))
+				break;
+		if (fPrefix == end && expectedLength == actualLength)
+			return false;
+		int expectedSuffix= expectedLength - 1;
+		int actualSuffix= actualLength - 1;
+		for (; actualSuffix >= fPrefix && expectedSuffix >= fPrefix; actualSuffix--, expectedSuffix--)
+			if (fExpected.charAt(expectedSuffix) != fActual.charAt(actualSuffix))
+				break;
+		fSuffix= expectedLength - expectedSuffix;
+		return true;
+	}
+
+	private String compact(CharSequence source) {
+		if (source == null)
+			return null;
+		StringBuilder result= new StringBuilder();
+		if (!fCompactable) {
+			appendCapped(result, source, 0, source.length(), fContextLength
+					+ fMaxDeltaLength);
+			return result.toString();
+		}
+		int length= source.length();
+		int deltaEnd= length - fSuffix + 1;
+		if (fPrefix > 0) {
+			if (fPrefix > fContextLength)
+				result.append(ELLIPSIS);
+			result.append(source, Math.max(0, fPrefix - fContextLength), fPrefix);
+		}
+		result.append(DELTA_START);
+		appendCapped(result, source, fPrefix, deltaEnd, fMaxDeltaLength);
+		result.append(DELTA_END);
+		result.append(source, deltaEnd, Math.min(deltaEnd + fContextLength, length));
+		if (deltaEnd < length - fContextLength)
+			result.append(ELLIPSIS);
+		return result.toString();
+	}
+
+	/*
+	 * Appends source[start, end), or, if that is longer than max, its first
+	 * and last characters around an ellipsis.
+	 */
+	private static void appendCapped(StringBuilder result, CharSequence source,
+			int start, int end, int max) {
+		if (end - start <= max) {
+			result.append(source, start, end);
+			return;
+		}
+		int head= max / 2;
+		result.append(source, start, start + head);
+		result.append(ELLIPSIS);
+		result.append(source, end - (max - head), end);
+	}
+}
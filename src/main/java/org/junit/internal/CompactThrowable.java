@@ -0,0 +1,101 @@
+package org.junit.internal;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Stands in for a thrown exception once it is no longer needed: keeps the
+ * exception's class name, message and the lines of its printed stack trace,
+ * but none of the objects the exception referenced. Trace lines are interned
+ * through a pool shared by all compacted failures of a run, so frames that
+ * recur in many traces (the runner's own frames, a common failing helper) are
+ * stored only once. The pool stops growing at {@link #MAX_INTERNED_LINES}
+ * distinct lines; later lines are still shared if already pooled.
+ */
+public class CompactThrowable extends Throwable {
+	private static final long serialVersionUID= 1L;
+
+	/**
+	 * The number of distinct trace lines an intern pool grows to
+	 */
+	public static final int MAX_INTERNED_LINES= 10000;
+
+	private static final Pattern LINE_SEPARATOR= Pattern.compile("\r?\n");
+
+	private final String fClassName;
+
+	private final String fMessage;
+
+	private final String[] fLines;
+
+	/**
+	 * @param original the exception to compact
+	 * @param pool the intern pool for trace lines. Access to it is
+	 * synchronized on the pool itself.
+	 */
+	public CompactThrowable(Throwable original, Map<String, String> pool) {
+		fClassName= original.getClass().getName();
+		fMessage= original.getMessage();
+		StringWriter trace= new StringWriter();
+		original.printStackTrace(new PrintWriter(trace));
+		fLines= LINE_SEPARATOR.split(trace.toString());
+		synchronized (pool) {
+			for (int i= 0; i < fLines.length; i++) {
+				String interned= pool.get(fLines[i]);
+				if (interned == null) {
+					if (pool.size() < MAX_INTERNED_LINES)
+						pool.put(fLines[i], fLines[i]);
+				}
+				else
+					fLines[i]= interned;
+			}
+		}
+	}
+
+	/**
+	 * Recreates an exception from its class name, message and printed stack
+	 * trace, for example one reported by another JVM
+	 */
+	public CompactThrowable(String className, String message, String trace) {
+		fClassName= className;
+		fMessage= message;
+		fLines= LINE_SEPARATOR.split(trace);
+	}
+
+	/**
+	 * @return the name of the class of the original exception
+	 */
+	public String getThrowableClassName() {
+		return fClassName;
+	}
+
+	@Override
+	public String getMessage() {
+		return fMessage;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return fLines.length == 0 ? fClassName : fLines[0];
+	}
+
+	@Override
+	public void printStackTrace(PrintStream stream) {
+		for (String each : fLines)
+			stream.println(each);
+	}
+
+	@Override
+	public void printStackTrace(PrintWriter writer) {
+		for (String each : fLines)
+			writer.println(each);
+	}
+}
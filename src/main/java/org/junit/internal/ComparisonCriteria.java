@@ -29,10 +29,8 @@ public abstract class ComparisonCriteria {
 			throws ArrayComparisonFailure {
 		if (expecteds == actuals)
 			return;
-		String header= message == null ? "" : message + ": ";
-
 		int expectedsLength= assertArraysAreSameLength(expecteds,
-				actuals, header);
+				actuals, message);
 
 		for (int i= 0; i < expectedsLength; i++) {
 			Object expected= Array.get(expecteds, i);
@@ -49,7 +47,7 @@ public abstract class ComparisonCriteria {
 				try {
 					assertElementsEqual(expected, actual);
 				} catch (AssertionError e) {
-					throw new ArrayComparisonFailure(header, e, i);
+					throw new ArrayComparisonFailure(header(message), e, i);
 				}
 		}
 	}
@@ -58,16 +56,20 @@ public abstract class ComparisonCriteria {
 		return expected != null && expected.getClass().isArray();
 	}
 
-	private int assertArraysAreSameLength(Object expecteds,
-			Object actuals, String header) {
+	static String header(String message) {
+		return message == null ? "" : message + ": ";
+	}
+
+	static int assertArraysAreSameLength(Object expecteds,
+			Object actuals, String message) {
 		if (expecteds == null)
-			Assert.fail(header + "expected array was null");
+			Assert.fail(header(message) + "expected array was null");
 		if (actuals == null)
-			Assert.fail(header + "actual array was null");
+			Assert.fail(header(message) + "actual array was null");
 		int actualsLength= Array.getLength(actuals);
 		int expectedsLength= Array.getLength(expecteds);
 		if (actualsLength != expectedsLength)
-			Assert.fail(header + "array lengths differed, expected.length="
+			Assert.fail(header(message) + "array lengths differed, expected.length="
 					+ expectedsLength + " actual.length=" + actualsLength);
 		return expectedsLength;
 	}
@@ -0,0 +1,50 @@
+package org.junit.internal;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.internal.runners.statements.FailOnTimeout;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * At the end of a run, reports the threads of tests that timed out during the
+ * run, ignored their interruption and are still running.
+ */
+public class LeakedThreadListener extends RunListener {
+	private final PrintStream fWriter;
+
+	private List<Thread> fLeakedBefore;
+
+	public LeakedThreadListener(JUnitSystem system) {
+		this(system.out());
+	}
+
+	public LeakedThreadListener(PrintStream writer) {
+		fWriter= writer;
+	}
+
+	@Override
+	public void testRunStarted(Description description) {
+		fLeakedBefore= FailOnTimeout.getLeakedThreads();
+	}
+
+	@Override
+	public void testRunFinished(Result result) {
+		List<Thread> leaked= FailOnTimeout.getLeakedThreads();
+		if (fLeakedBefore != null)
+			leaked.removeAll(fLeakedBefore);
+		if (leaked.isEmpty())
+			return;
+		fWriter.println("There " + (leaked.size() == 1 ? "is " : "are ")
+				+ leaked.size() + " leaked thread"
+				+ (leaked.size() == 1 ? "" : "s")
+				+ " of timed out tests:");
+		for (Thread each : leaked) {
+			fWriter.println(each.getName());
+			for (StackTraceElement frame : each.getStackTrace())
+				fWriter.println("\tat " + frame);
+		}
+	}
+}
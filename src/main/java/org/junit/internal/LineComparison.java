@@ -0,0 +1,155 @@
+package org.junit.internal;
+
+/**
+ * Compares two texts line by line, and describes the first lines that
+ * differ, with their line numbers, each compacted by a
+ * {@link CharSequenceCompactor}. Lines are compared in place, in a single
+ * pass, so only the rendered windows of the differing lines are ever copied
+ * out of the texts. Lines are matched by their numbers: a line inserted into
+ * one of the texts shows as a difference in every line after it, up to the
+ * limit.
+ */
+public class LineComparison {
+	/**
+	 * The number of differing lines described by default
+	 */
+	public static final int DEFAULT_MAX_DIFFERENCES= 10;
+
+	/**
+	 * The number of common characters shown by default on either side of
+	 * the difference within a line
+	 */
+	public static final int DEFAULT_CONTEXT_LENGTH= 20;
+
+	private final int fMaxDifferences;
+
+	private final int fContextLength;
+
+	private final int fMaxDeltaLength;
+
+	public LineComparison(int maxDifferences, int contextLength,
+			int maxDeltaLength) {
+		fMaxDifferences= maxDifferences;
+		fContextLength= contextLength;
+		fMaxDeltaLength= maxDeltaLength;
+	}
+
+	/**
+	 * @return a description of the first lines in which {@code expected} and
+	 * {@code actual} differ, or null if they are equal
+	 */
+	public String describeDifferences(CharSequence expected, CharSequence actual) {
+		StringBuilder result= null;
+		int differences= 0;
+		int expectedStart= 0;
+		int actualStart= 0;
+		for (int line= 1; expectedStart <= expected.length()
+				|| actualStart <= actual.length(); line++) {
+			int expectedEnd= lineEnd(expected, expectedStart);
+			int actualEnd= lineEnd(actual, actualStart);
+			if (!regionsEqual(expected, expectedStart, expectedEnd, actual,
+					actualStart, actualEnd)) {
+				if (result == null)
+					result= new StringBuilder("lines differed");
+				if (differences++ == fMaxDifferences) {
+					result.append("\n  (only the first ").append(fMaxDifferences)
+							.append(" differing lines are shown)");
+					break;
+				}
+				describe(result, line, window(expected, expectedStart, expectedEnd),
+						window(actual, actualStart, actualEnd));
+			}
+			expectedStart= expectedEnd + 1;
+			actualStart= actualEnd + 1;
+		}
+		return result == null ? null : result.toString();
+	}
+
+	private void describe(StringBuilder result, int line, CharSequence expected,
+			CharSequence actual) {
+		result.append("\n  line ").append(line).append(": ");
+		if (expected == null)
+			result.append("unexpected:<").append(compactor(actual, null).getExpected());
+		else if (actual == null)
+			result.append("missing:<").append(compactor(expected, null).getExpected());
+		else {
+			CharSequenceCompactor compactor= compactor(expected, actual);
+			result.append("expected:<").append(compactor.getExpected())
+					.append("> but was:<").append(compactor.getActual());
+		}
+		result.append('>');
+	}
+
+	private CharSequenceCompactor compactor(CharSequence expected,
+			CharSequence actual) {
+		return new CharSequenceCompactor(fContextLength, fMaxDeltaLength,
+				expected, actual);
+	}
+
+	/*
+	 * The index of the newline that ends the line starting at start, or the
+	 * length of the text. A start beyond the text means there is no such line.
+	 */
+	private static int lineEnd(CharSequence text, int start) {
+		int end= start;
+		while (end < text.length() && text.charAt(end) != '\n')
+			end++;
+		return end;
+	}
+
+	private static boolean regionsEqual(CharSequence expected,
+			int expectedStart, int expectedEnd, CharSequence actual,
+			int actualStart, int actualEnd) {
+		if (expectedStart > expected.length() || actualStart > actual.length())
+			return false;
+		if (expectedEnd - expectedStart != actualEnd - actualStart)
+			return false;
+		for (int i= 0; i < expectedEnd - expectedStart; i++)
+			if (expected.charAt(expectedStart + i) != actual.charAt(actualStart + i))
+				return false;
+		return true;
+	}
+
+	private static CharSequence window(CharSequence text, int start, int end) {
+		return start > text.length() ? null : new Window(text, start, end);
+	}
+
+	/*
+	 * A view of part of a text. Unlike String.subSequence(), it copies
+	 * nothing.
+	 */
+	private static class Window implements CharSequence {
+		private final CharSequence fText;
+
+		private final int fStart;
+
+		private final int fEnd;
+
+		Window(CharSequence text, int start, int end) {
+			fText= text;
+			fStart= start;
+			fEnd= end;
+		}
+
+		public char charAt(int index) {
+			if (index < 0 || index >= length())
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			return fText.charAt(fStart + index);
+		}
+
+		public int length() {
+			return fEnd - fStart;
+		}
+
+		public CharSequence subSequence(int start, int end) {
+			if (start < 0 || end > length() || start > end)
+				throw new IndexOutOfBoundsException(start + ", " + end);
+			return new Window(fText, fStart + start, fStart + end);
+		}
+
+		@Override
+		public String toString() {
+			return fText.subSequence(fStart, fEnd).toString();
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package org.junit.internal;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+
+/**
+ * Compares arrays of primitives without boxing their elements. Equal arrays
+ * are recognized by {@link Arrays#equals}, which the JVM can compare in bulk;
+ * only arrays that differ are scanned, element by element, for the first
+ * mismatch. Nothing is allocated unless the arrays differ, and then only the
+ * {@link ArrayComparisonFailure} for the first differing element, with the
+ * same message {@link ComparisonCriteria} would report.
+ */
+public final class PrimitiveArrayComparison {
+	private PrimitiveArrayComparison() {
+	}
+
+	public static void arrayEquals(String message, byte[] expecteds,
+			byte[] actuals) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (expecteds[i] != actuals[i])
+				throw failure(message, i, expecteds[i], actuals[i]);
+	}
+
+	public static void arrayEquals(String message, char[] expecteds,
+			char[] actuals) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (expecteds[i] != actuals[i])
+				throw failure(message, i, expecteds[i], actuals[i]);
+	}
+
+	public static void arrayEquals(String message, short[] expecteds,
+			short[] actuals) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (expecteds[i] != actuals[i])
+				throw failure(message, i, expecteds[i], actuals[i]);
+	}
+
+	public static void arrayEquals(String message, int[] expecteds,
+			int[] actuals) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (expecteds[i] != actuals[i])
+				throw failure(message, i, expecteds[i], actuals[i]);
+	}
+
+	public static void arrayEquals(String message, long[] expecteds,
+			long[] actuals) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (expecteds[i] != actuals[i])
+				throw failure(message, i, expecteds[i], actuals[i]);
+	}
+
+	/**
+	 * Elements are compared as by {@link Assert#assertEquals(String, double, double, double)}
+	 */
+	public static void arrayEquals(String message, double[] expecteds,
+			double[] actuals, double delta) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (isDifferent(expecteds[i], actuals[i], delta))
+				throw failure(message, i, expecteds[i], actuals[i], delta);
+	}
+
+	/**
+	 * Elements are compared as doubles, as by
+	 * {@link Assert#assertEquals(String, double, double, double)}
+	 */
+	public static void arrayEquals(String message, float[] expecteds,
+			float[] actuals, float delta) throws ArrayComparisonFailure {
+		if (Arrays.equals(expecteds, actuals))
+			return;
+		int length= ComparisonCriteria.assertArraysAreSameLength(expecteds,
+				actuals, message);
+		for (int i= 0; i < length; i++)
+			if (isDifferent(expecteds[i], actuals[i], delta))
+				throw failure(message, i, expecteds[i], actuals[i], delta);
+	}
+
+	/**
+	 * Finds where two arrays of the same primitive type differ, without
+	 * boxing their elements. Elements are compared as their wrappers'
+	 * {@code equals} would compare them.
+	 * 
+	 * @return the index of the first differing element, the length of the
+	 * shorter array if it is a prefix of the longer one, or -1 if the arrays
+	 * are equal
+	 */
+	public static int firstDifference(Object expecteds, Object actuals) {
+		if (expecteds instanceof boolean[] && actuals instanceof boolean[]) {
+			boolean[] e= (boolean[]) expecteds;
+			boolean[] a= (boolean[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (e[i] != a[i])
+					return i;
+			return length;
+		}
+		if (expecteds instanceof byte[] && actuals instanceof byte[]) {
+			byte[] e= (byte[]) expecteds;
+			byte[] a= (byte[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (e[i] != a[i])
+					return i;
+			return length;
+		}
+		if (expecteds instanceof char[] && actuals instanceof char[]) {
+			char[] e= (char[]) expecteds;
+			char[] a= (char[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (e[i] != a[i])
+					return i;
+			return length;
+		}
+		if (expecteds instanceof short[] && actuals instanceof short[]) {
+			short[] e= (short[]) expecteds;
+			short[] a= (short[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (e[i] != a[i])
+					return i;
+			return length;
+		}
+		if (expecteds instanceof int[] && actuals instanceof int[]) {
+			int[] e= (int[]) expecteds;
+			int[] a= (int[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (e[i] != a[i])
+					return i;
+			return length;
+		}
+		if (expecteds instanceof long[] && actuals instanceof long[]) {
+			long[] e= (long[]) expecteds;
+			long[] a= (long[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (e[i] != a[i])
+					return i;
+			return length;
+		}
+		if (expecteds instanceof float[] && actuals instanceof float[]) {
+			float[] e= (float[]) expecteds;
+			float[] a= (float[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (Float.floatToIntBits(e[i]) != Float.floatToIntBits(a[i]))
+					return i;
+			return length;
+		}
+		if (expecteds instanceof double[] && actuals instanceof double[]) {
+			double[] e= (double[]) expecteds;
+			double[] a= (double[]) actuals;
+			if (Arrays.equals(e, a))
+				return -1;
+			int length= Math.min(e.length, a.length);
+			for (int i= 0; i < length; i++)
+				if (Double.doubleToLongBits(e[i]) != Double.doubleToLongBits(a[i]))
+					return i;
+			return length;
+		}
+		throw new IllegalArgumentException("not arrays of the same primitive type");
+	}
+
+	private static boolean isDifferent(double expected, double actual,
+			double delta) {
+		return Double.compare(expected, actual) != 0
+				&& !(Math.abs(expected - actual) <= delta);
+	}
+
+	private static ArrayComparisonFailure failure(String message, int index,
+			Object expected, Object actual) {
+		try {
+			Assert.assertEquals(expected, actual);
+			throw new IllegalStateException("elements at " + index + " are equal");
+		} catch (AssertionError e) {
+			return new ArrayComparisonFailure(
+					ComparisonCriteria.header(message), e, index);
+		}
+	}
+
+	private static ArrayComparisonFailure failure(String message, int index,
+			double expected, double actual, double delta) {
+		try {
+			Assert.assertEquals(expected, actual, delta);
+			throw new IllegalStateException("elements at " + index + " are equal");
+		} catch (AssertionError e) {
+			return new ArrayComparisonFailure(
+					ComparisonCriteria.header(message), e, index);
+		}
+	}
+}
@@ -0,0 +1,344 @@
+package org.junit.internal;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Assert;
+
+/**
+ * Compares two structures of arrays, collections and maps in a single pass,
+ * and describes how they differ instead of printing both of them. Arrays are
+ * compared with arrays, and lists and other non-set iterables with each
+ * other, element by element; maps key by key; and sets, or collections
+ * compared with {@link #assertSameElements(String, Collection, Collection)},
+ * by hashing their elements. Anything else is compared with {@code equals}.
+ * An array is never equal to an iterable. Arrays of the same primitive type
+ * are compared by {@link PrimitiveArrayComparison}, without boxing their
+ * elements unless they differ.
+ *
+ * The comparison stops at the first {@code maxDifferences} differences, and
+ * every value in the failure message is abbreviated, so that the message
+ * stays short however large the structures are. Nothing is rendered unless
+ * the structures differ.
+ *
+ * A comparison collects its differences, so use each instance only once.
+ */
+public class StructuralComparison {
+	/**
+	 * The number of differences reported by default
+	 */
+	public static final int DEFAULT_MAX_DIFFERENCES= 10;
+
+	private static final int MAX_VALUE_LENGTH= 100;
+
+	private static final Object INDEX= new Object();
+
+	private final int fMaxDifferences;
+
+	private final List<String> fDifferences= new ArrayList<String>();
+
+	// the path to the elements being compared: an index where fKeys holds INDEX
+	private Object[] fKeys= new Object[8];
+
+	private int[] fIndices= new int[8];
+
+	private int fDepth= 0;
+
+	/**
+	 * Creates a comparison that reports at most {@code maxDifferences}
+	 * differences
+	 */
+	public StructuralComparison(int maxDifferences) {
+		if (maxDifferences < 1)
+			throw new IllegalArgumentException("maxDifferences must be positive");
+		fMaxDifferences= maxDifferences;
+	}
+
+	/**
+	 * Asserts that {@code expected} and {@code actual} have the same
+	 * structure and equal elements. If not, an {@link AssertionError} listing
+	 * the first differences is thrown with the given message.
+	 */
+	public void assertDeepEquals(String message, Object expected, Object actual) {
+		compare(expected, actual);
+		failIfDifferent(message);
+	}
+
+	/**
+	 * Asserts that {@code expected} and {@code actual} contain equal
+	 * elements, equally often, in any order. If not, an {@link
+	 * AssertionError} listing the first missing and unexpected elements is
+	 * thrown with the given message.
+	 */
+	public void assertSameElements(String message, Collection<?> expected,
+			Collection<?> actual) {
+		if (expected == null || actual == null)
+			compare(expected, actual);
+		else
+			compareUnordered(expected, actual);
+		failIfDifferent(message);
+	}
+
+	private void failIfDifferent(String message) {
+		if (fDifferences.isEmpty())
+			return;
+		StringBuilder builder= new StringBuilder(ComparisonCriteria.header(message));
+		builder.append("structures differed");
+		for (String each : fDifferences)
+			builder.append("\n  ").append(each);
+		if (isStopped())
+			builder.append("\n  (only the first ").append(fMaxDifferences)
+					.append(" differences are shown)");
+		Assert.fail(builder.toString());
+	}
+
+	private boolean isStopped() {
+		return fDifferences.size() >= fMaxDifferences;
+	}
+
+	private void compare(Object expected, Object actual) {
+		if (expected == actual || isStopped())
+			return;
+		if (expected instanceof Map<?, ?> && actual instanceof Map<?, ?>)
+			compareMaps((Map<?, ?>) expected, (Map<?, ?>) actual);
+		else if (expected instanceof Set<?> && actual instanceof Set<?>)
+			compareUnordered((Set<?>) expected, (Set<?>) actual);
+		else if (isArray(expected) && isArray(actual))
+			compareArrays(expected, actual);
+		else if (isOrdered(expected) && isOrdered(actual))
+			compareOrdered(expected, actual, 0);
+		else if (isArray(expected) && isOrdered(actual) || isOrdered(expected)
+				&& isArray(actual))
+			difference("types differed, expected:<" + typeName(expected)
+					+ "> but was:<" + typeName(actual) + ">");
+		else if (expected == null || !expected.equals(actual))
+			notEqual(expected, actual);
+	}
+
+	private void compareArrays(Object expected, Object actual) {
+		Class<?> type= expected.getClass().getComponentType();
+		if (!type.isPrimitive() || type != actual.getClass().getComponentType()) {
+			compareOrdered(expected, actual, 0);
+			return;
+		}
+		int first= PrimitiveArrayComparison.firstDifference(expected, actual);
+		if (first >= 0)
+			compareOrdered(expected, actual, first);
+	}
+
+	private static String typeName(Object value) {
+		return value.getClass().isArray() ? value.getClass().getComponentType()
+				.getName() + "[]" : value.getClass().getName();
+	}
+
+	private void notEqual(Object expected, Object actual) {
+		String expectedString= render(expected);
+		String actualString= render(actual);
+		if (expectedString.equals(actualString)) {
+			expectedString= className(expected) + "<" + expectedString + ">";
+			actualString= className(actual) + "<" + actualString + ">";
+		}
+		difference("expected:<" + expectedString + "> but was:<"
+				+ actualString + ">");
+	}
+
+	private static String className(Object value) {
+		return value == null ? "null" : value.getClass().getName();
+	}
+
+	private static boolean isArray(Object value) {
+		return value != null && value.getClass().isArray();
+	}
+
+	private static boolean isOrdered(Object value) {
+		return value instanceof Iterable<?> && !(value instanceof Set<?>);
+	}
+
+	/*
+	 * Compares the elements from index start on; the ones before are equal
+	 */
+	private void compareOrdered(Object expected, Object actual, int start) {
+		Iterator<?> expecteds= elements(expected, start);
+		Iterator<?> actuals= elements(actual, start);
+		int index= start;
+		while (expecteds.hasNext() && actuals.hasNext()) {
+			if (isStopped())
+				return;
+			pushIndex(index++);
+			compare(expecteds.next(), actuals.next());
+			pop();
+		}
+		if (!expecteds.hasNext() && !actuals.hasNext())
+			return;
+		boolean missing= expecteds.hasNext();
+		Iterator<?> longer= missing ? expecteds : actuals;
+		Object first= longer.next();
+		int longerSize= index + 1 + count(longer);
+		difference("sizes differed, expected:<" + (missing ? longerSize : index)
+				+ "> but was:<" + (missing ? index : longerSize) + ">");
+		pushIndex(index);
+		difference((missing ? "missing:<" : "unexpected:<") + render(first)
+				+ ">");
+		pop();
+	}
+
+	private static int count(Iterator<?> elements) {
+		int result= 0;
+		for (; elements.hasNext(); elements.next())
+			result++;
+		return result;
+	}
+
+	private static Iterator<?> elements(final Object value, int start) {
+		if (value instanceof Iterable<?>) {
+			Iterator<?> result= ((Iterable<?>) value).iterator();
+			for (int i= 0; i < start; i++)
+				result.next();
+			return result;
+		}
+		final int length= Array.getLength(value);
+		final int first= start;
+		return new Iterator<Object>() {
+			private int fNext= first;
+
+			public boolean hasNext() {
+				return fNext < length;
+			}
+
+			public Object next() {
+				if (fNext >= length)
+					throw new NoSuchElementException();
+				return Array.get(value, fNext++);
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private void compareMaps(Map<?, ?> expected, Map<?, ?> actual) {
+		int missing= 0;
+		for (Map.Entry<?, ?> each : expected.entrySet()) {
+			if (isStopped())
+				return;
+			pushKey(each.getKey());
+			if (actual.containsKey(each.getKey()))
+				compare(each.getValue(), actual.get(each.getKey()));
+			else {
+				missing++;
+				difference("missing:<" + render(each.getValue()) + ">");
+			}
+			pop();
+		}
+		if (actual.size() == expected.size() - missing)
+			return;
+		for (Map.Entry<?, ?> each : actual.entrySet()) {
+			if (isStopped())
+				return;
+			if (!expected.containsKey(each.getKey())) {
+				pushKey(each.getKey());
+				difference("unexpected:<" + render(each.getValue()) + ">");
+				pop();
+			}
+		}
+	}
+
+	private void compareUnordered(Collection<?> expected, Collection<?> actual) {
+		Map<Object, int[]> counts= new HashMap<Object, int[]>();
+		for (Object each : expected) {
+			int[] count= counts.get(each);
+			if (count == null)
+				counts.put(each, new int[] {1});
+			else
+				count[0]++;
+		}
+		for (Object each : actual) {
+			if (isStopped())
+				return;
+			int[] count= counts.get(each);
+			if (count == null || count[0] == 0)
+				difference("unexpected:<" + render(each) + ">");
+			else
+				count[0]--;
+		}
+		for (Map.Entry<Object, int[]> each : counts.entrySet())
+			for (int i= 0; i < each.getValue()[0]; i++) {
+				if (isStopped())
+					return;
+				difference("missing:<" + render(each.getKey()) + ">");
+			}
+	}
+
+	private void pushIndex(int index) {
+		ensureDepth();
+		fKeys[fDepth]= INDEX;
+		fIndices[fDepth++]= index;
+	}
+
+	private void pushKey(Object key) {
+		ensureDepth();
+		fKeys[fDepth++]= key;
+	}
+
+	private void ensureDepth() {
+		if (fDepth < fKeys.length)
+			return;
+		Object[] keys= new Object[2 * fDepth];
+		System.arraycopy(fKeys, 0, keys, 0, fDepth);
+		fKeys= keys;
+		int[] indices= new int[2 * fDepth];
+		System.arraycopy(fIndices, 0, indices, 0, fDepth);
+		fIndices= indices;
+	}
+
+	private void pop() {
+		fKeys[--fDepth]= null;
+	}
+
+	private void difference(String description) {
+		if (isStopped())
+			return;
+		if (fDepth == 0) {
+			fDifferences.add(description);
+			return;
+		}
+		StringBuilder builder= new StringBuilder();
+		for (int i= 0; i < fDepth; i++) {
+			builder.append('[');
+			if (fKeys[i] == INDEX)
+				builder.append(fIndices[i]);
+			else
+				builder.append(render(fKeys[i]));
+			builder.append(']');
+		}
+		fDifferences.add(builder.append(": ").append(description).toString());
+	}
+
+	/*
+	 * Containers are summarized; anything else is cut short.
+	 */
+	private static String render(Object value) {
+		if (value == null)
+			return "null";
+		if (value.getClass().isArray())
+			return value.getClass().getComponentType().getSimpleName() + "["
+					+ Array.getLength(value) + "]";
+		if (value instanceof Collection<?>)
+			return value.getClass().getSimpleName() + "(size="
+					+ ((Collection<?>) value).size() + ")";
+		if (value instanceof Map<?, ?>)
+			return value.getClass().getSimpleName() + "(size="
+					+ ((Map<?, ?>) value).size() + ")";
+		String result= String.valueOf(value);
+		return result.length() <= MAX_VALUE_LENGTH ? result
+				: result.substring(0, MAX_VALUE_LENGTH) + "...";
+	}
+}
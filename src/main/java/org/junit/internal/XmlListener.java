@@ -0,0 +1,238 @@
+package org.junit.internal;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Writes an Ant/Surefire style XML report while the tests run. Each
+ * {@code <testcase>} is written as soon as its test finishes, so memory use
+ * is bounded by the tests in flight, not by the size of the run. The counts
+ * on the {@code <testsuite>} element are filled in when the run finishes,
+ * over a slot reserved when it starts; the part of the slot they do not use
+ * is left as whitespace between the attributes and the end of the tag.
+ *
+ * Failures caused by an {@link AssertionError} are reported as
+ * {@code <failure>}s, and those caused by any other exception as
+ * {@code <error>}s.
+ *
+ * The report is written with plain streams rather than channels, since
+ * events may be fired from a thread that has been interrupted (for example
+ * by a timeout), and an interrupt would close a channel.
+ *
+ * Combine with a {@link org.junit.runner.Result} that does not retain
+ * failures to run very large suites in constant memory.
+ */
+public class XmlListener extends RunListener {
+	private static final String ENCODING= "UTF-8";
+
+	private static final int COUNTS_WIDTH= counts(Integer.MAX_VALUE,
+			Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+			Long.MAX_VALUE).length();
+
+	private final File fReport;
+
+	private final Writer fWriter;
+
+	private long fCountsPosition;
+
+	private long fRunStart;
+
+	private int fTests;
+
+	private int fFailures;
+
+	private int fErrors;
+
+	private int fSkipped;
+
+	private final Map<Description, InFlight> fInFlight= new HashMap<Description, InFlight>();
+
+	private static class InFlight {
+		final long fStart= System.nanoTime();
+
+		final StringBuilder fChildren= new StringBuilder();
+	}
+
+	/**
+	 * Creates a listener that writes its report to {@code report},
+	 * replacing anything that file contained
+	 */
+	public XmlListener(File report) throws IOException {
+		fReport= report;
+		fWriter= new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(report), ENCODING));
+	}
+
+	@Override
+	public synchronized void testRunStarted(Description description) throws Exception {
+		fRunStart= System.nanoTime();
+		String header= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\""
+				+ escape(description.getDisplayName()) + "\" ";
+		fWriter.write(header);
+		fCountsPosition= header.getBytes(ENCODING).length;
+		fWriter.write(padded(counts(0, 0, 0, 0, 0)));
+		fWriter.write(">\n");
+	}
+
+	@Override
+	public synchronized void testStarted(Description description) throws Exception {
+		fInFlight.put(description, new InFlight());
+	}
+
+	@Override
+	public synchronized void testFailure(Failure failure) throws Exception {
+		if (failure.getException() instanceof AssertionError) {
+			fFailures++;
+			appendOrWrite(failure.getDescription(), "failure", failure);
+		} else {
+			fErrors++;
+			appendOrWrite(failure.getDescription(), "error", failure);
+		}
+	}
+
+	@Override
+	public synchronized void testAssumptionFailure(Failure failure) {
+		InFlight test= fInFlight.get(failure.getDescription());
+		if (test != null) {
+			fSkipped++;
+			test.fChildren.append("<skipped/>");
+		}
+	}
+
+	@Override
+	public synchronized void testIgnored(Description description) throws Exception {
+		fSkipped++;
+		writeTestCase(description, 0, "<skipped/>");
+	}
+
+	@Override
+	public synchronized void testFinished(Description description) throws Exception {
+		InFlight test= fInFlight.remove(description);
+		fTests++;
+		if (test == null)
+			writeTestCase(description, 0, "");
+		else
+			writeTestCase(description, System.nanoTime() - test.fStart,
+					test.fChildren);
+	}
+
+	@Override
+	public synchronized void testRunFinished(Result result) throws Exception {
+		fWriter.write("</testsuite>\n");
+		fWriter.close();
+		String counts= padded(counts(fTests, fFailures, fErrors, fSkipped,
+				System.nanoTime() - fRunStart));
+		RandomAccessFile file= new RandomAccessFile(fReport, "rw");
+		try {
+			file.seek(fCountsPosition);
+			file.write(counts.getBytes(ENCODING));
+			file.getFD().sync();
+		} finally {
+			file.close();
+		}
+	}
+
+	/*
+	 * Failures of a running test are kept until the test finishes; any
+	 * other failure (for example in a @BeforeClass method) gets a test case
+	 * of its own.
+	 */
+	private void appendOrWrite(Description description, String element,
+			Failure failure) throws IOException {
+		InFlight test= fInFlight.get(description);
+		StringBuilder child= new StringBuilder();
+		child.append('<').append(element).append(" message=\"")
+				.append(escape(String.valueOf(failure.getMessage())))
+				.append("\" type=\"")
+				.append(failure.getException().getClass().getName())
+				.append("\">").append(escape(failure.getTrace())).append("</")
+				.append(element).append('>');
+		if (test != null)
+			test.fChildren.append(child);
+		else {
+			fTests++;
+			writeTestCase(description, 0, child);
+		}
+	}
+
+	private void writeTestCase(Description description, long nanos,
+			CharSequence children) throws IOException {
+		fWriter.write("  <testcase classname=\"");
+		fWriter.write(escape(String.valueOf(description.getClassName())));
+		fWriter.write("\" name=\"");
+		String methodName= description.getMethodName();
+		fWriter.write(escape(methodName == null ? description.getDisplayName() : methodName));
+		fWriter.write("\" time=\"");
+		fWriter.write(seconds(nanos));
+		if (children.length() == 0)
+			fWriter.write("\"/>\n");
+		else {
+			fWriter.write("\">");
+			fWriter.append(children);
+			fWriter.write("</testcase>\n");
+		}
+	}
+
+	private static String counts(int tests, int failures, int errors,
+			int skipped, long nanos) {
+		return String.format(Locale.ENGLISH,
+				"tests=\"%d\" failures=\"%d\" errors=\"%d\" skipped=\"%d\" time=\"%.3f\"",
+				tests, failures, errors, skipped, nanos / 1e9);
+	}
+
+	private static String padded(String counts) {
+		StringBuilder result= new StringBuilder(counts);
+		while (result.length() < COUNTS_WIDTH)
+			result.append(' ');
+		return result.toString();
+	}
+
+	private static String seconds(long nanos) {
+		return String.format(Locale.ENGLISH, "%.3f", nanos / 1e9);
+	}
+
+	/*
+	 * Characters that XML 1.0 does not allow, even as character references,
+	 * are replaced by U+FFFD.
+	 */
+	static String escape(String text) {
+		StringBuilder result= new StringBuilder(text.length());
+		for (int i= 0; i < text.length(); i++) {
+			char c= text.charAt(i);
+			switch (c) {
+			case '<':
+				result.append("&lt;");
+				break;
+			case '>':
+				result.append("&gt;");
+				break;
+			case '&':
+				result.append("&amp;");
+				break;
+			case '"':
+				result.append("&quot;");
+				break;
+			default:
+				if (c < ' ' && c != '\n' && c != '\r' && c != '\t'
+						|| c == '\uFFFE' || c == '\uFFFF')
+					result.append('\uFFFD');
+				else
+					result.append(c);
+			}
+		}
+		return result.toString();
+	}
+}
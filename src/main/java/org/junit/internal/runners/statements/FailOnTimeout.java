@@ -1,18 +1,48 @@
 /**
- * 
+ *
  */
 package org.junit.internal.runners.statements;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.runners.model.Statement;
 
+/**
+ * Runs the next statement on a worker thread and fails if it does not finish
+ * within the timeout. Workers are daemon threads taken from a pool shared by
+ * all timed tests, so a class with thousands of timed tests reuses a few
+ * threads instead of starting one per test; idle workers exit after a while.
+ * A worker runs each test with the context class loader of the thread that
+ * submitted it, but, unlike a thread started for the test, it does not
+ * inherit that thread's {@link InheritableThreadLocal}s, and values a test
+ * leaves in {@link ThreadLocal}s are still set in later timed tests that run
+ * on the same worker. A worker whose name, priority or uncaught exception
+ * handler the test changed is not reused.
+ *
+ * A test that times out is interrupted. If it ignores the interruption, its
+ * worker is abandoned to it and reported by {@link #getLeakedThreads()}.
+ */
 public class FailOnTimeout extends Statement {
-	private Statement fNext;
+	private static final long IDLE_MILLIS= 1000;
 
-	private final long fTimeout;
+	private static final BlockingQueue<Task> QUEUE= new LinkedBlockingQueue<Task>();
+
+	private static final AtomicInteger IDLE_WORKERS= new AtomicInteger();
 
-	private boolean fFinished= false;
+	private static final AtomicInteger WORKER_COUNT= new AtomicInteger();
 
-	private Throwable fThrown= null;
+	private static final List<Task> ABANDONED= new ArrayList<Task>();
+
+	private final Statement fNext;
+
+	private final long fTimeout;
 
 	public FailOnTimeout(Statement next, long timeout) {
 		fNext= next;
@@ -21,26 +51,175 @@ public class FailOnTimeout extends Statement {
 
 	@Override
 	public void evaluate() throws Throwable {
-		Thread thread= new Thread() {
-			@Override
-			public void run() {
+		Task task= new Task(fNext);
+		submit(task);
+		boolean finished;
+		try {
+			finished= task.fDone.await(fTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			task.stop();
+			throw e;
+		}
+		if (!finished) {
+			StackTraceElement[] stackTrace= task.stop();
+			if (stackTrace != null) {
+				Exception exception= new Exception(String.format(
+						"test timed out after %d milliseconds", fTimeout));
+				exception.setStackTrace(stackTrace);
+				throw exception;
+			}
+		}
+		if (task.fThrown != null)
+			throw task.fThrown;
+	}
+
+	/**
+	 * @return the threads of timed out tests that are still running, in the
+	 * order in which they timed out
+	 */
+	public static List<Thread> getLeakedThreads() {
+		List<Thread> result= new ArrayList<Thread>();
+		synchronized (ABANDONED) {
+			for (Iterator<Task> each= ABANDONED.iterator(); each.hasNext();) {
+				Thread thread= each.next().runningThread();
+				if (thread == null)
+					each.remove();
+				else
+					result.add(thread);
+			}
+		}
+		return result;
+	}
+
+	private static void submit(Task task) {
+		QUEUE.add(task);
+		for (;;) {
+			int idle= IDLE_WORKERS.get();
+			if (idle == 0) {
+				Thread worker= new Thread(new Worker(), "junit-timeout-"
+						+ WORKER_COUNT.getAndIncrement());
+				worker.setDaemon(true);
+				worker.start();
+				return;
+			}
+			if (IDLE_WORKERS.compareAndSet(idle, idle - 1))
+				return;
+		}
+	}
+
+	/*
+	 * A worker counts itself idle before it signals that its task is done, so
+	 * that a test submitted right afterwards is handed to it instead of to a
+	 * new thread.
+	 */
+	private static class Worker implements Runnable {
+		public void run() {
+			for (;;) {
+				Task task;
 				try {
-					fNext.evaluate();
+					task= QUEUE.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					task= null;
+				}
+				if (task != null) {
+					if (!task.evaluate()) {
+						task.fDone.countDown();
+						return;
+					}
+					IDLE_WORKERS.incrementAndGet();
+					task.fDone.countDown();
+				} else if (retire())
+					return;
+			}
+		}
+
+		private boolean retire() {
+			for (;;) {
+				int idle= IDLE_WORKERS.get();
+				// every idle worker has been claimed: a task is on its way
+				if (idle == 0)
+					return false;
+				if (IDLE_WORKERS.compareAndSet(idle, idle - 1))
+					return true;
+			}
+		}
+	}
+
+	private static class Task {
+		private final Statement fNext;
+
+		private final ClassLoader fContextClassLoader= Thread.currentThread()
+				.getContextClassLoader();
+
+		final CountDownLatch fDone= new CountDownLatch(1);
+
+		volatile Throwable fThrown= null;
+
+		private Thread fThread= null;
+
+		private boolean fFinished= false;
+
+		Task(Statement next) {
+			fNext= next;
+		}
+
+		/*
+		 * Returns whether the worker may run another test: false if the test
+		 * changed the worker's name, priority or uncaught exception handler
+		 */
+		boolean evaluate() {
+			Thread current= Thread.currentThread();
+			synchronized (this) {
+				if (fFinished)
+					return true;
+				fThread= current;
+			}
+			String name= current.getName();
+			int priority= current.getPriority();
+			Thread.UncaughtExceptionHandler handler= current.getUncaughtExceptionHandler();
+			ClassLoader workerClassLoader= current.getContextClassLoader();
+			current.setContextClassLoader(fContextClassLoader);
+			try {
+				fNext.evaluate();
+			} catch (Throwable e) {
+				fThrown= e;
+			} finally {
+				current.setContextClassLoader(workerClassLoader);
+				synchronized (this) {
 					fFinished= true;
-				} catch (Throwable e) {
-					fThrown= e;
+					fThread= null;
+					// clear an interruption that arrived too late, so it
+					// does not leak into the next test on this worker
+					Thread.interrupted();
 				}
 			}
-		};
-		thread.start();
-		thread.join(fTimeout);
-		if (fFinished)
-			return;
-		if (fThrown != null)
-			throw fThrown;
-		Exception exception= new Exception(String.format(
-				"test timed out after %d milliseconds", fTimeout));
-		exception.setStackTrace(thread.getStackTrace());
-		throw exception;
+			return name.equals(current.getName())
+					&& priority == current.getPriority()
+					&& handler == current.getUncaughtExceptionHandler();
+		}
+
+		/*
+		 * Interrupts the statement if it is still running and returns its
+		 * stack trace, or null if it finished in the meantime.
+		 */
+		synchronized StackTraceElement[] stop() {
+			if (fFinished)
+				return null;
+			if (fThread == null) {
+				// not started yet: keep the worker from starting it
+				fFinished= true;
+				return new StackTraceElement[0];
+			}
+			StackTraceElement[] stackTrace= fThread.getStackTrace();
+			fThread.interrupt();
+			synchronized (ABANDONED) {
+				ABANDONED.add(this);
+			}
+			return stackTrace;
+		}
+
+		synchronized Thread runningThread() {
+			return fFinished ? null : fThread;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package org.junit.internal.runners.statements;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runners.model.Statement;
+
+/**
+ * Runs the next statement on the calling thread and fails if it does not
+ * finish within the timeout. Unlike {@link FailOnTimeout}, thread-local state
+ * set up by the runner or by rules is visible to the test, and no thread hop
+ * is paid per test. A single daemon watchdog thread, shared by all tests,
+ * tracks the deadlines; when a test overruns, the watchdog captures its stack
+ * and interrupts it.
+ *
+ * A test that ignores the interruption keeps running (and keeps the runner
+ * waiting) until it returns: only then is it reported as timed out.
+ */
+public class FailOnWatchdogTimeout extends Statement {
+	private static final long IDLE_MILLIS= 1000;
+
+	private static final DelayQueue<Deadline> DEADLINES= new DelayQueue<Deadline>();
+
+	private static Thread fgWatchdog= null;
+
+	private final Statement fNext;
+
+	private final long fTimeout;
+
+	public FailOnWatchdogTimeout(Statement next, long timeout) {
+		fNext= next;
+		fTimeout= timeout;
+	}
+
+	@Override
+	public void evaluate() throws Throwable {
+		Deadline deadline= new Deadline(Thread.currentThread(), fTimeout);
+		DEADLINES.add(deadline);
+		startWatchdogIfNeeded();
+		Throwable thrown= null;
+		try {
+			fNext.evaluate();
+		} catch (Throwable e) {
+			thrown= e;
+		}
+		StackTraceElement[] stackTrace= deadline.finish();
+		if (stackTrace != null) {
+			Exception exception= new Exception(String.format(
+					"test timed out after %d milliseconds", fTimeout));
+			exception.setStackTrace(stackTrace);
+			throw exception;
+		}
+		DEADLINES.remove(deadline);
+		if (thrown != null)
+			throw thrown;
+	}
+
+	private static synchronized void startWatchdogIfNeeded() {
+		if (fgWatchdog != null)
+			return;
+		fgWatchdog= new Thread(new Watchdog(), "junit-watchdog");
+		fgWatchdog.setDaemon(true);
+		fgWatchdog.start();
+	}
+
+	private static synchronized boolean stopWatchdogIfIdle() {
+		if (!DEADLINES.isEmpty())
+			return false;
+		fgWatchdog= null;
+		return true;
+	}
+
+	private static class Watchdog implements Runnable {
+		public void run() {
+			for (;;) {
+				Deadline expired;
+				try {
+					expired= DEADLINES.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					expired= null;
+				}
+				if (expired != null)
+					expired.expire();
+				else if (stopWatchdogIfIdle())
+					return;
+			}
+		}
+	}
+
+	private static class Deadline implements Delayed {
+		private final Thread fThread;
+
+		private final long fNanos;
+
+		private boolean fFinished= false;
+
+		private StackTraceElement[] fStackTrace= null;
+
+		Deadline(Thread thread, long timeoutMillis) {
+			fThread= thread;
+			fNanos= System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		}
+
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(fNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		public int compareTo(Delayed other) {
+			long difference= fNanos - ((Deadline) other).fNanos;
+			return difference < 0 ? -1 : difference > 0 ? 1 : 0;
+		}
+
+		synchronized void expire() {
+			if (fFinished)
+				return;
+			fStackTrace= fThread.getStackTrace();
+			fThread.interrupt();
+		}
+
+		/*
+		 * Returns the stack trace captured when the test overran, or null if
+		 * it finished in time. Either way, the watchdog no longer touches the
+		 * thread afterwards.
+		 */
+		synchronized StackTraceElement[] finish() {
+			fFinished= true;
+			if (fStackTrace != null)
+				// the interruption was meant for the test only
+				Thread.interrupted();
+			return fStackTrace;
+		}
+	}
+}
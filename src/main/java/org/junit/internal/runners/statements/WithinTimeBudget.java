@@ -0,0 +1,30 @@
+package org.junit.internal.runners.statements;
+
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TimeBudget;
+
+/**
+ * Evaluates the next statement, which is interrupted if the budget runs out
+ * before it finishes. The interruption is cleared before this statement
+ * returns, so it does not reach the listeners notified afterwards.
+ */
+public class WithinTimeBudget extends Statement {
+	private final Statement fNext;
+
+	private final TimeBudget fBudget;
+
+	public WithinTimeBudget(Statement next, TimeBudget budget) {
+		fNext= next;
+		fBudget= budget;
+	}
+
+	@Override
+	public void evaluate() throws Throwable {
+		fBudget.enter();
+		try {
+			fNext.evaluate();
+		} finally {
+			fBudget.exit();
+		}
+	}
+}
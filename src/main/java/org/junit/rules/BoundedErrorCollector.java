@@ -0,0 +1,205 @@
+package org.junit.rules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.internal.runners.model.MultipleFailureException;
+
+/**
+ * Like {@link ErrorCollector}, lets a test continue after the first problem
+ * is found, but for tests that may find a great many of them, possibly on
+ * several threads at once (for example, validating every row of a large
+ * table on a pool of workers):
+ *
+ * <pre>
+ * public static class ValidatesRows {
+ * 	&#064;Rule
+ * 	public BoundedErrorCollector collector= new BoundedErrorCollector(100, false);
+ *
+ * 	&#064;Test
+ * 	public void example() {
+ * 		for (Row each : rows())
+ * 			collector.checkThat(each.getTotal(), is(each.sum()));
+ * 		// all rows are checked, and then the failures are reported at the end
+ * 	}
+ * }
+ * </pre>
+ *
+ * Failures with the same type and message are grouped, and reported once,
+ * with the number of times they occurred. At most {@code capacity} distinct
+ * failures are kept; further ones are only counted, and reported as a
+ * single failure. Failures found by {@link #checkThat(Object, Matcher)} can
+ * be created without stack traces, which are the most expensive part of a
+ * failure when a test produces millions of them.
+ *
+ * All methods may be called from several threads at once.
+ */
+public class BoundedErrorCollector extends Verifier {
+	/**
+	 * The number of distinct failures kept by default
+	 */
+	public static final int DEFAULT_CAPACITY= 100;
+
+	private final int fCapacity;
+
+	private final boolean fStackTraces;
+
+	private final AtomicInteger fErrorCount= new AtomicInteger();
+
+	private final AtomicInteger fDropped= new AtomicInteger();
+
+	// guarded by itself; the groups are also kept in fOrder, in order of arrival
+	private final Map<String, Group> fGroups= new HashMap<String, Group>();
+
+	private final List<Group> fOrder= new ArrayList<Group>();
+
+	private static class Group {
+		final Throwable fFirst;
+
+		final AtomicInteger fCount= new AtomicInteger(1);
+
+		Group(Throwable first) {
+			fFirst= first;
+		}
+
+		Throwable summarize() {
+			int count= fCount.get();
+			if (count == 1)
+				return fFirst;
+			AssertionError result= new AssertionError(fFirst.getMessage()
+					+ " (occurred " + count + " times)");
+			result.initCause(fFirst);
+			result.setStackTrace(fFirst.getStackTrace());
+			return result;
+		}
+	}
+
+	private static class LightweightAssertionError extends AssertionError {
+		private static final long serialVersionUID= 1L;
+
+		LightweightAssertionError(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	/**
+	 * Creates a collector that keeps {@link #DEFAULT_CAPACITY} distinct
+	 * failures, with their stack traces
+	 */
+	public BoundedErrorCollector() {
+		this(DEFAULT_CAPACITY, true);
+	}
+
+	/**
+	 * @param capacity the number of distinct failures kept
+	 * @param stackTraces if false, failures found by
+	 * {@link #checkThat(Object, Matcher)} have no stack traces
+	 */
+	public BoundedErrorCollector(int capacity, boolean stackTraces) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be positive");
+		fCapacity= capacity;
+		fStackTraces= stackTraces;
+	}
+
+	@Override
+	protected void verify() throws Throwable {
+		List<Throwable> failures= new ArrayList<Throwable>();
+		synchronized (fGroups) {
+			for (Group each : fOrder)
+				failures.add(each.summarize());
+		}
+		int dropped= fDropped.get();
+		if (dropped > 0)
+			failures.add(new AssertionError(dropped + " more failures of "
+					+ fErrorCount.get() + " were not kept: only " + fCapacity
+					+ " distinct failures are kept"));
+		MultipleFailureException.assertEmpty(failures);
+	}
+
+	/**
+	 * Adds a Throwable to the table. Execution continues, but the test will
+	 * fail at the end.
+	 */
+	public void addError(Throwable error) {
+		fErrorCount.incrementAndGet();
+		String key= error.getClass().getName() + ": " + error.getMessage();
+		Group group;
+		synchronized (fGroups) {
+			group= fGroups.get(key);
+			if (group == null) {
+				if (fGroups.size() < fCapacity) {
+					Group first= new Group(error);
+					fGroups.put(key, first);
+					fOrder.add(first);
+				} else
+					fDropped.incrementAndGet();
+				return;
+			}
+		}
+		group.fCount.incrementAndGet();
+	}
+
+	/**
+	 * Adds a failure to the table if {@code matcher} does not match
+	 * {@code value}. Execution continues, but the test will fail at the end
+	 * if the match fails. Nothing is allocated if it matches.
+	 */
+	public <T> void checkThat(T value, Matcher<T> matcher) {
+		checkThat("", value, matcher);
+	}
+
+	/**
+	 * Adds a failure, described by {@code reason}, to the table if
+	 * {@code matcher} does not match {@code value}. Execution continues, but
+	 * the test will fail at the end if the match fails.
+	 */
+	public <T> void checkThat(String reason, T value, Matcher<T> matcher) {
+		if (matcher.matches(value))
+			return;
+		// the message of Assert.assertThat
+		Description description= new StringDescription();
+		description.appendText(reason);
+		description.appendText("\nExpected: ");
+		description.appendDescriptionOf(matcher);
+		description.appendText("\n     got: ");
+		description.appendValue(value);
+		description.appendText("\n");
+		addError(fStackTraces ? new AssertionError(description.toString())
+				: new LightweightAssertionError(description.toString()));
+	}
+
+	/**
+	 * Adds to the table the exception, if any, thrown from {@code callable}.
+	 * Execution continues, but the test will fail at the end if
+	 * {@code callable} threw an exception.
+	 */
+	public Object checkSucceeds(Callable<Object> callable) {
+		try {
+			return callable.call();
+		} catch (Throwable e) {
+			addError(e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return the number of errors added so far, including those grouped
+	 * with others and those not kept
+	 */
+	public int getErrorCount() {
+		return fErrorCount.get();
+	}
+}
@@ -4,6 +4,7 @@
 package org.junit.rules;
 
 import org.junit.internal.runners.statements.FailOnTimeout;
+import org.junit.internal.runners.statements.FailOnWatchdogTimeout;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
 
@@ -34,16 +35,41 @@ import org.junit.runners.model.Statement;
  * </pre>
  */
 public class Timeout implements MethodRule {
+	/**
+	 * Returns a rule that runs each test on the runner's thread, so that
+	 * thread-local state is visible to it. A shared watchdog thread interrupts
+	 * tests that time out; a test that ignores the interruption is only
+	 * reported once it returns.
+	 * 
+	 * @param millis the millisecond timeout
+	 */
+	public static Timeout onCallingThread(int millis) {
+		return new Timeout(millis, true);
+	}
+
 	private final int fMillis;
 
+	private final boolean fOnCallingThread;
+
 	/**
+	 * Runs each test on a pooled thread shared with other timed tests, so
+	 * values a test leaves in {@link ThreadLocal}s may be seen by later timed
+	 * tests.
+	 * 
 	 * @param millis the millisecond timeout
 	 */
 	public Timeout(int millis) {
+		this(millis, false);
+	}
+
+	private Timeout(int millis, boolean onCallingThread) {
 		fMillis= millis;
+		fOnCallingThread= onCallingThread;
 	}
 
 	public Statement apply(Statement base, FrameworkMethod method, Object target) {
+		if (fOnCallingThread)
+			return new FailOnWatchdogTimeout(base, fMillis);
 		return new FailOnTimeout(base, fMillis);
 	}
 }
\ No newline at end of file
@@ -25,7 +25,8 @@ import java.util.regex.Pattern;
  * @see org.junit.runner.Runner
  */
 public class Description {
-	
+	private static final Pattern METHOD_AND_CLASS_NAME_PATTERN= Pattern.compile("(.*)\\((.*)\\)");
+
 	/**
 	 * Create a <code>Description</code> named <code>name</code>.
 	 * Generally, you will add children to this <code>Description</code>.
@@ -48,7 +49,8 @@ public class Description {
 	 * @return a <code>Description</code> named <code>name</code>
 	 */
 	public static Description createTestDescription(Class<?> clazz, String name, Annotation... annotations) {
-		return new Description(String.format("%s(%s)", name, clazz.getName()), annotations);
+		return new Description(name + "(" + clazz.getName() + ")", clazz,
+				clazz.getName(), name, annotations);
 	}
 
 	/**
@@ -69,7 +71,8 @@ public class Description {
 	 * @return a <code>Description</code> of <code>testClass</code>
 	 */
 	public static Description createSuiteDescription(Class<?> testClass) {
-		return new Description(testClass.getName(), testClass.getAnnotations());
+		return new Description(testClass.getName(), testClass,
+				testClass.getName(), null, testClass.getAnnotations());
 	}
 	
 	/**
@@ -88,10 +91,36 @@ public class Description {
 	private final String fDisplayName;
 	
 	private final Annotation[] fAnnotations;
+
+	/*
+	 * Known when the description is created from a class, and parsed from
+	 * the display name (once) otherwise.
+	 */
+	private final Class<?> fTestClass;
+	private final String fClassName;
+	private final String fMethodName;
 	
 	private Description(final String displayName, Annotation... annotations) {
 		fDisplayName= displayName;
 		fAnnotations= annotations;
+		fTestClass= null;
+		Matcher matcher= METHOD_AND_CLASS_NAME_PATTERN.matcher(displayName);
+		if (matcher.matches()) {
+			fMethodName= matcher.group(1);
+			fClassName= matcher.group(2);
+		} else {
+			fMethodName= null;
+			fClassName= displayName;
+		}
+	}
+
+	private Description(String displayName, Class<?> testClass,
+			String className, String methodName, Annotation... annotations) {
+		fDisplayName= displayName;
+		fAnnotations= annotations;
+		fTestClass= testClass;
+		fClassName= className;
+		fMethodName= methodName;
 	}
 
 	/**
@@ -144,16 +173,24 @@ public class Description {
 
 	@Override
 	public int hashCode() {
-		return getDisplayName().hashCode();
+		return fDisplayName.hashCode();
 	}
 
+	/*
+	 * Runners hand out the same Description instance for a test every time,
+	 * so most comparisons are settled by identity. The (cached) hash codes
+	 * of the names settle most of the rest without looking at any children.
+	 */
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
 		if (!(obj instanceof Description))
 			return false;
 		Description d = (Description) obj;
-		return getDisplayName().equals(d.getDisplayName())
-				&& getChildren().equals(d.getChildren());
+		return fDisplayName.hashCode() == d.fDisplayName.hashCode()
+				&& fDisplayName.equals(d.fDisplayName)
+				&& fChildren.equals(d.fChildren);
 	}
 	
 	@Override
@@ -173,7 +210,8 @@ public class Description {
 	 * children will be added back)
 	 */
 	public Description childlessCopy() {
-		return new Description(fDisplayName, fAnnotations);
+		return new Description(fDisplayName, fTestClass, fClassName,
+				fMethodName, fAnnotations);
 	}
 
 	/**
@@ -199,6 +237,8 @@ public class Description {
 	 * the class of the test instance.
 	 */
 	public Class<?> getTestClass() {
+		if (fTestClass != null)
+			return fTestClass;
 		String name= getClassName();
 		if (name == null)
 			return null;
@@ -214,10 +254,7 @@ public class Description {
 	 * the name of the class of the test instance
 	 */
 	public String getClassName() {
-		Matcher matcher= methodStringMatcher();
-		return matcher.matches()
-			? matcher.group(2)
-			: toString();
+		return fClassName;
 	}
 	
 	/**
@@ -225,17 +262,6 @@ public class Description {
 	 * the name of the method (or null if not)
 	 */
 	public String getMethodName() {
-		return parseMethod();
-	}
-
-	private String parseMethod() {
-		Matcher matcher= methodStringMatcher();
-		if (matcher.matches())
-			return matcher.group(1);
-		return null;
-	}
-
-	private Matcher methodStringMatcher() {
-		return Pattern.compile("(.*)\\((.*)\\)").matcher(toString());
+		return fMethodName;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.junit.runner;
+
+/**
+ * Decides how much of each {@link org.junit.runner.notification.Failure} a
+ * {@link Result} keeps until the end of the run. The first
+ * {@link #getFullFailures()} failures keep the original exception. Later
+ * failures keep only a compact, pre-rendered copy of its stack trace, with
+ * identical trace lines shared between failures, so that a run with many
+ * thousands of failures does not hold on to every exception (and everything
+ * its message and cause chain reference).
+ *
+ * @see Result#Result(FailureRetention)
+ * @see JUnitCore#setFailureRetention(FailureRetention)
+ */
+public final class FailureRetention {
+	/**
+	 * Keeps every failure with its original exception
+	 */
+	public static final FailureRetention ALL= new FailureRetention(true, Integer.MAX_VALUE);
+
+	/**
+	 * Keeps no failures, only their count
+	 */
+	public static final FailureRetention COUNTS_ONLY= new FailureRetention(false, 0);
+
+	/**
+	 * @param fullFailures the number of failures that keep their original exception
+	 * @return a policy that keeps the first {@code fullFailures} failures
+	 * complete and compacts the rest
+	 */
+	public static FailureRetention firstFull(int fullFailures) {
+		if (fullFailures < 0)
+			throw new IllegalArgumentException("fullFailures must not be negative");
+		return new FailureRetention(true, fullFailures);
+	}
+
+	private final boolean fRetainFailures;
+
+	private final int fFullFailures;
+
+	private FailureRetention(boolean retainFailures, int fullFailures) {
+		fRetainFailures= retainFailures;
+		fFullFailures= fullFailures;
+	}
+
+	/**
+	 * @return false if failures are only counted
+	 */
+	public boolean retainsFailures() {
+		return fRetainFailures;
+	}
+
+	/**
+	 * @return the number of failures that keep their original exception
+	 */
+	public int getFullFailures() {
+		return fFullFailures;
+	}
+}
@@ -5,9 +5,11 @@ import java.util.List;
 
 import junit.runner.Version;
 import org.junit.internal.JUnitSystem;
+import org.junit.internal.LeakedThreadListener;
 import org.junit.internal.RealSystem;
 import org.junit.internal.TextListener;
 import org.junit.internal.runners.JUnit38ClassRunner;
+import org.junit.runner.manipulation.ShardFilter;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 import org.junit.runner.notification.RunNotifier;
@@ -25,8 +27,20 @@ import org.junit.runner.notification.RunNotifier;
  * @see org.junit.runner.Request
  */
 public class JUnitCore {
+	/**
+	 * The command line option that runs a single shard of the tests, given
+	 * as {@code --shard=INDEX/COUNT}. Shards are numbered from 0, and tests
+	 * are assigned to them by {@link ShardFilter#ShardFilter(int, int)}. To
+	 * balance shards by duration, filter the request with
+	 * {@link ShardFilter#balanced(int, int, Description, java.util.Map)}
+	 * instead.
+	 */
+	public static final String SHARD_OPTION= "--shard=";
+
 	private RunNotifier fNotifier;
 
+	private FailureRetention fRetention= FailureRetention.ALL;
+
 	/**
 	 * Create a new <code>JUnitCore</code> to run tests.
 	 */
@@ -39,7 +53,8 @@ public class JUnitCore {
 	 * If all tests run successfully, exit with a status of 0. Otherwise exit with a status of 1.
 	 * Write feedback while tests are running and write
 	 * stack traces for all failed tests after the tests all complete.
-	 * @param args names of classes in which to find tests to run
+	 * With {@link #SHARD_OPTION}, only one shard of the tests is run.
+	 * @param args names of classes in which to find tests to run, and options
 	 */
 	public static void main(String... args) {
 		runMainAndExit(new RealSystem(), args);
@@ -84,23 +99,72 @@ public class JUnitCore {
 		system.out().println("JUnit version " + Version.id());
 		List<Class<?>> classes= new ArrayList<Class<?>>();
 		List<Failure> missingClasses= new ArrayList<Failure>();
+		String shard= null;
 		for (String each : args)
+			if (each.startsWith(SHARD_OPTION))
+				shard= each.substring(SHARD_OPTION.length());
+			else
+				try {
+					classes.add(Class.forName(each));
+				} catch (ClassNotFoundException e) {
+					system.out().println("Could not find class: " + each);
+					Description description= Description.createSuiteDescription(each);
+					Failure failure= new Failure(description, e);
+					missingClasses.add(failure);
+				}
+		ShardFilter shardFilter= null;
+		if (shard != null)
 			try {
-				classes.add(Class.forName(each));
-			} catch (ClassNotFoundException e) {
-				system.out().println("Could not find class: " + each);
-				Description description= Description.createSuiteDescription(each);
-				Failure failure= new Failure(description, e);
-				missingClasses.add(failure);
+				shardFilter= parseShard(shard);
+			} catch (IllegalArgumentException e) {
+				system.out().println(e.getMessage());
+				Result result= new Result(fRetention);
+				result.addFailure(new Failure(Description
+						.createSuiteDescription(SHARD_OPTION + shard), e));
+				return result;
 			}
 		RunListener listener= new TextListener(system);
 		addListener(listener);
-		Result result= run(classes.toArray(new Class[0]));
+		addListener(new LeakedThreadListener(system));
+		Runner runner= Request.classes(defaultComputer(),
+				classes.toArray(new Class[0])).getRunner();
+		Result result;
+		if (shardFilter != null && !shard(system, runner, shardFilter))
+			result= new Result(fRetention);
+		else
+			result= run(runner);
 		for (Failure each : missingClasses)
-			result.getFailures().add(each);
+			result.addFailure(each);
 		return result;
 	}
 
+	/*
+	 * Parses a shard given as INDEX/COUNT
+	 */
+	private static ShardFilter parseShard(String shard) {
+		int slash= shard.indexOf('/');
+		try {
+			int index= Integer.parseInt(shard.substring(0, Math.max(slash, 0)));
+			int count= Integer.parseInt(shard.substring(slash + 1));
+			return new ShardFilter(index, count);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Expected " + SHARD_OPTION
+					+ "INDEX/COUNT, with 0 <= INDEX < COUNT, was "
+					+ SHARD_OPTION + shard);
+		}
+	}
+
+	/*
+	 * Restricts runner to a shard. Returns false if that shard has no tests.
+	 */
+	private boolean shard(JUnitSystem system, Runner runner, ShardFilter filter) {
+		filter.apply(runner);
+		if (runner.testCount() > 0)
+			return true;
+		system.out().println("No tests in " + filter.describe());
+		return false;
+	}
+
 	/**
 	 * @return the version number of this release
 	 */
@@ -149,7 +213,7 @@ public class JUnitCore {
 	 * Do not use. Testing purposes only.
 	 */
 	public Result run(Runner runner) {
-		Result result= new Result();
+		Result result= new Result(fRetention);
 		RunListener listener= result.createListener();
 		fNotifier.addFirstListener(listener);
 		try {
@@ -162,6 +226,14 @@ public class JUnitCore {
 		return result;
 	}
 	
+	/**
+	 * @param retention decides how much of each failure the {@link Result}s
+	 * of later runs keep. Listeners still see every failure complete.
+	 */
+	public void setFailureRetention(FailureRetention retention) {
+		fRetention= retention;
+	}
+
 	/**
 	 * Add a listener to be notified as the tests run.
 	 * @param listener the listener to add
@@ -1,10 +1,13 @@
 package org.junit.runner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.internal.CompactThrowable;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 
@@ -16,10 +19,28 @@ import org.junit.runner.notification.RunListener;
 public class Result {
 	private AtomicInteger fCount = new AtomicInteger();
 	private AtomicInteger fIgnoreCount= new AtomicInteger();
+	private AtomicInteger fFailureCount= new AtomicInteger();
 	private final List<Failure> fFailures= Collections.synchronizedList( new ArrayList<Failure>());
+	private final FailureRetention fRetention;
+	private final Map<String, String> fTraceLines= new HashMap<String, String>();
 	private long fRunTime= 0;
 	private long fStartTime;
 
+	/**
+	 * Creates a result that keeps every {@link Failure}
+	 */
+	public Result() {
+		this(FailureRetention.ALL);
+	}
+
+	/**
+	 * @param retention decides which failures keep their original exception,
+	 * which are compacted, and whether failures are kept at all
+	 */
+	public Result(FailureRetention retention) {
+		fRetention= retention;
+	}
+
 	/**
 	 * @return the number of tests run
 	 */
@@ -31,7 +52,9 @@ public class Result {
 	 * @return the number of tests that failed during the run
 	 */
 	public int getFailureCount() {
-		return fFailures.size();
+		if (fRetention.retainsFailures())
+			return fFailures.size();
+		return fFailureCount.get();
 	}
 
 	/**
@@ -42,7 +65,8 @@ public class Result {
 	}
 
 	/**
-	 * @return the {@link Failure}s describing tests that failed and the problems they encountered
+	 * @return the {@link Failure}s describing tests that failed and the problems they encountered,
+	 * or an empty list if this result does not retain failures
 	 */
 	public List<Failure> getFailures() {
 		return fFailures;
@@ -62,6 +86,20 @@ public class Result {
 		return getFailureCount() == 0;
 	}
 
+	/*
+	 * Counts failure, and keeps it as the retention decides
+	 */
+	void addFailure(Failure failure) {
+		int index= fFailureCount.getAndIncrement();
+		if (!fRetention.retainsFailures())
+			return;
+		if (index < fRetention.getFullFailures())
+			fFailures.add(failure);
+		else
+			fFailures.add(new Failure(failure.getDescription(),
+					new CompactThrowable(failure.getException(), fTraceLines)));
+	}
+
 	private class Listener extends RunListener {
 		@Override
 		public void testRunStarted(Description description) throws Exception {
@@ -81,7 +119,7 @@ public class Result {
 
 		@Override
 		public void testFailure(Failure failure) throws Exception {
-			fFailures.add(failure);
+			addFailure(failure);
 		}
 
 		@Override
@@ -0,0 +1,165 @@
+package org.junit.runner.manipulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.runner.Description;
+
+/**
+ * Selects one of {@code shardCount} disjoint shards of the tests, so that the
+ * same suite can be spread over several machines, each running
+ * <pre>
+ * new JUnitCore().run(Request.classes(classes).filterWith(new ShardFilter(index, count)));
+ * </pre>
+ * with its own {@code index}, from 0 to {@code count - 1}. Together the
+ * shards run every test exactly once. With more shards than tests, some
+ * shards are empty; unlike other filters, a {@code ShardFilter} that leaves
+ * no tests does not make the run fail.
+ *
+ * By default, a test goes to the shard given by a hash of its display name,
+ * which is the same on every machine and for every JVM, and does not change
+ * as other tests are added or removed. {@link #balanced(int, int, Description, Map)}
+ * instead packs the tests of a suite into shards of about the same total
+ * duration; it needs every machine to see the same suite and the same
+ * durations.
+ */
+public class ShardFilter extends Filter {
+	private final int fShardIndex;
+
+	private final int fShardCount;
+
+	private final Map<Description, Integer> fShards;
+
+	/**
+	 * Creates a filter that runs the tests whose display names hash to shard
+	 * {@code shardIndex} of {@code shardCount}
+	 */
+	public ShardFilter(int shardIndex, int shardCount) {
+		this(shardIndex, shardCount, new HashMap<Description, Integer>());
+	}
+
+	private ShardFilter(int shardIndex, int shardCount,
+			Map<Description, Integer> shards) {
+		if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount)
+			throw new IllegalArgumentException(String.format(
+					"Invalid shard %d of %d", shardIndex, shardCount));
+		fShardIndex= shardIndex;
+		fShardCount= shardCount;
+		fShards= shards;
+	}
+
+	/**
+	 * Returns a filter that runs shard {@code shardIndex} of {@code
+	 * shardCount} shards of about equal duration. The tests of {@code suite}
+	 * are assigned longest first, each to the shard with the least total
+	 * duration so far; a test missing from {@code durations} is assumed to
+	 * take the average duration of the others. Tests that are not part of
+	 * {@code suite} are assigned by hash.
+	 */
+	public static ShardFilter balanced(int shardIndex, int shardCount,
+			Description suite, final Map<Description, Long> durations) {
+		List<Description> tests= new ArrayList<Description>();
+		collectTests(suite, tests);
+		long known= 0;
+		int count= 0;
+		for (Description each : tests) {
+			Long duration= durations.get(each);
+			if (duration != null) {
+				known+= duration;
+				count++;
+			}
+		}
+		final long unknown= count == 0 ? 1 : known / count;
+		final Map<Description, Long> estimates= new HashMap<Description, Long>();
+		for (Description each : tests) {
+			Long duration= durations.get(each);
+			estimates.put(each, duration == null ? unknown : duration);
+		}
+		// the order must not depend on the order in which the suite lists its tests
+		Collections.sort(tests, new Comparator<Description>() {
+			public int compare(Description o1, Description o2) {
+				int result= estimates.get(o2).compareTo(estimates.get(o1));
+				return result != 0 ? result : o1.getDisplayName().compareTo(
+						o2.getDisplayName());
+			}
+		});
+		long[] loads= new long[shardCount];
+		Map<Description, Integer> shards= new HashMap<Description, Integer>();
+		for (Description each : tests) {
+			if (shards.containsKey(each))
+				continue;
+			int lightest= 0;
+			for (int i= 1; i < shardCount; i++)
+				if (loads[i] < loads[lightest])
+					lightest= i;
+			loads[lightest]+= estimates.get(each);
+			shards.put(each, lightest);
+		}
+		return new ShardFilter(shardIndex, shardCount, shards);
+	}
+
+	private static void collectTests(Description description,
+			List<Description> tests) {
+		if (description.isTest())
+			tests.add(description);
+		for (Description each : description.getChildren())
+			collectTests(each, tests);
+	}
+
+	/**
+	 * Applies this filter to {@code child}. If no test of {@code child}
+	 * belongs to this shard, {@code child} is left without tests instead of
+	 * {@link NoTestsRemainException} being thrown.
+	 */
+	@Override
+	public void apply(Object child) {
+		try {
+			super.apply(child);
+		} catch (NoTestsRemainException e) {
+			// an empty shard is not an error: the child now runs nothing
+		}
+	}
+
+	@Override
+	public boolean shouldRun(Description description) {
+		if (description.isTest())
+			return shardOf(description) == fShardIndex;
+		for (Description each : description.getChildren())
+			if (shouldRun(each))
+				return true;
+		return false;
+	}
+
+	private int shardOf(Description test) {
+		Integer shard= fShards.get(test);
+		if (shard != null)
+			return shard;
+		return (int) ((hash(test.getDisplayName()) & Long.MAX_VALUE) % fShardCount);
+	}
+
+	/*
+	 * 64 bit FNV-1a, followed by the final mix of MurmurHash3. Unlike
+	 * String.hashCode(), it spreads display names that differ only in their
+	 * last characters (test1, test2, ...) evenly over the shards.
+	 */
+	private static long hash(String displayName) {
+		long hash= 0xcbf29ce484222325L;
+		for (int i= 0; i < displayName.length(); i++) {
+			char c= displayName.charAt(i);
+			hash= (hash ^ (c & 0xff)) * 0x100000001b3L;
+			hash= (hash ^ (c >>> 8)) * 0x100000001b3L;
+		}
+		hash^= hash >>> 33;
+		hash*= 0xff51afd7ed558ccdL;
+		return hash ^ (hash >>> 33);
+	}
+
+	@Override
+	public String describe() {
+		return String.format("shard %d of %d", fShardIndex, fShardCount);
+	}
+}
@@ -0,0 +1,66 @@
+package org.junit.runner.notification;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The chain of objects (test classes, runners, methods) enclosing the code
+ * that is currently being run. The ancestry is used to find rules to apply.
+ *
+ * An <code>Ancestry</code> is immutable: {@link #with(Object)} returns a new
+ * chain that shares this one as its parent, so an ancestry captured by a
+ * child that is scheduled on another thread is never affected by its
+ * siblings. Iteration goes from the innermost ancestor to the root.
+ */
+public final class Ancestry implements Iterable<Object> {
+	/**
+	 * The ancestry of a run that has not entered any runner yet
+	 */
+	public static final Ancestry EMPTY= new Ancestry(null, null);
+
+	private final Object fAncestor;
+
+	private final Ancestry fParent;
+
+	private Ancestry(Object ancestor, Ancestry parent) {
+		fAncestor= ancestor;
+		fParent= parent;
+	}
+
+	/**
+	 * @param ancestor the object to add below the current innermost ancestor
+	 * @return a new ancestry with {@code ancestor} as its innermost element
+	 */
+	public Ancestry with(Object ancestor) {
+		return new Ancestry(ancestor, this);
+	}
+
+	/**
+	 * @return true if there are no ancestors
+	 */
+	public boolean isEmpty() {
+		return fParent == null;
+	}
+
+	public Iterator<Object> iterator() {
+		return new Iterator<Object>() {
+			private Ancestry fNext= Ancestry.this;
+
+			public boolean hasNext() {
+				return !fNext.isEmpty();
+			}
+
+			public Object next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Object ancestor= fNext.fAncestor;
+				fNext= fNext.fParent;
+				return ancestor;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
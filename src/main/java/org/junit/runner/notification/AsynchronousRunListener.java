@@ -0,0 +1,258 @@
+package org.junit.runner.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+
+/**
+ * <p>Decorates a {@link RunListener} so that the test threads only enqueue
+ * events, while a dedicated thread delivers them, in batches, to the decorated
+ * listener. Use it for slow listeners (database writers, file reporters) that
+ * would otherwise add their latency to every test:
+ * <pre>
+ * JUnitCore core= new JUnitCore();
+ * core.addListener(new AsynchronousRunListener(new DatabaseListener()));
+ * core.run(MyTestClass.class);
+ * </pre>
+ * </p>
+ *
+ * <p>Events are delivered one at a time and in the order in which they were
+ * fired, so the decorated listener does not need to be thread-safe. At most
+ * {@code capacity} events are queued; a test thread firing an event while
+ * the queue is full waits until there is room. {@link #testRunFinished(Result)}
+ * does not return until every earlier event, and the run-finished event
+ * itself, have been delivered.</p>
+ *
+ * <p>Firing an event never throws {@link InterruptedException}: a test thread
+ * that is interrupted while it waits for room in the queue keeps waiting, and
+ * its interrupt is restored once the event is queued.</p>
+ *
+ * <p>If the decorated listener throws, no further events are delivered to it,
+ * and the exception is rethrown from {@link #testRunFinished(Result)}, so that
+ * the {@link RunNotifier} removes this listener and reports the problem as
+ * usual without losing any of the events fired before it.</p>
+ */
+public class AsynchronousRunListener extends RunListener {
+	/**
+	 * The number of events queued by default before test threads have to wait
+	 */
+	public static final int DEFAULT_CAPACITY= 1024;
+
+	/**
+	 * The number of events delivered by default in a single batch
+	 */
+	public static final int DEFAULT_BATCH_SIZE= 64;
+
+	private static final long IDLE_MILLIS= 1000;
+
+	private enum Kind {
+		RUN_STARTED, RUN_FINISHED, STARTED, FINISHED, FAILURE, ASSUMPTION_FAILURE, IGNORED
+	}
+
+	private static class Event {
+		final Kind fKind;
+
+		final Object fArgument;
+
+		final CountDownLatch fDelivered;
+
+		Event(Kind kind, Object argument, CountDownLatch delivered) {
+			fKind= kind;
+			fArgument= argument;
+			fDelivered= delivered;
+		}
+	}
+
+	private final RunListener fDelegate;
+
+	private final BlockingQueue<Event> fQueue;
+
+	private final int fBatchSize;
+
+	private Thread fDrainer= null;
+
+	private volatile Throwable fFailure= null;
+
+	/**
+	 * Decorates {@code delegate}, using the default capacity and batch size
+	 */
+	public AsynchronousRunListener(RunListener delegate) {
+		this(delegate, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Decorates {@code delegate}
+	 * @param capacity the number of events queued before test threads have to wait
+	 * @param batchSize the maximum number of events delivered in a single batch
+	 */
+	public AsynchronousRunListener(RunListener delegate, int capacity, int batchSize) {
+		if (capacity < 1 || batchSize < 1)
+			throw new IllegalArgumentException("capacity and batch size must be positive");
+		fDelegate= delegate;
+		fQueue= new ArrayBlockingQueue<Event>(capacity);
+		fBatchSize= batchSize;
+	}
+
+	@Override
+	public void testRunStarted(Description description) {
+		enqueue(Kind.RUN_STARTED, description, null);
+	}
+
+	@Override
+	public void testRunFinished(Result result) throws Exception {
+		CountDownLatch delivered= new CountDownLatch(1);
+		enqueue(Kind.RUN_FINISHED, result, delivered);
+		boolean interrupted= false;
+		for (;;)
+			try {
+				delivered.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted= true;
+			}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		rethrowFailure();
+	}
+
+	@Override
+	public void testStarted(Description description) {
+		enqueue(Kind.STARTED, description, null);
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		enqueue(Kind.FINISHED, description, null);
+	}
+
+	@Override
+	public void testFailure(Failure failure) {
+		enqueue(Kind.FAILURE, failure, null);
+	}
+
+	@Override
+	public void testAssumptionFailure(Failure failure) {
+		enqueue(Kind.ASSUMPTION_FAILURE, failure, null);
+	}
+
+	@Override
+	public void testIgnored(Description description) {
+		enqueue(Kind.IGNORED, description, null);
+	}
+
+	/*
+	 * Waits for room in the queue even if the firing thread is interrupted,
+	 * since giving up would lose the event; the interrupt is restored
+	 * afterwards for the test or runner that is waiting for it.
+	 */
+	private void enqueue(Kind kind, Object argument, CountDownLatch delivered) {
+		if (fFailure != null) {
+			if (delivered != null)
+				delivered.countDown();
+			return;
+		}
+		Event event= new Event(kind, argument, delivered);
+		boolean interrupted= false;
+		for (;;)
+			try {
+				fQueue.put(event);
+				break;
+			} catch (InterruptedException e) {
+				interrupted= true;
+			}
+		startDrainerIfNeeded();
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private void rethrowFailure() throws Exception {
+		Throwable failure= fFailure;
+		if (failure instanceof Exception)
+			throw (Exception) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+	}
+
+	private synchronized void startDrainerIfNeeded() {
+		if (fDrainer != null)
+			return;
+		fDrainer= new Thread(new Drainer(), "junit-listener-" + fDelegate.getClass().getName());
+		fDrainer.setDaemon(true);
+		fDrainer.start();
+	}
+
+	private synchronized boolean stopDrainerIfIdle() {
+		if (!fQueue.isEmpty())
+			return false;
+		fDrainer= null;
+		return true;
+	}
+
+	private class Drainer implements Runnable {
+		public void run() {
+			List<Event> batch= new ArrayList<Event>(fBatchSize);
+			for (;;) {
+				Event first;
+				try {
+					first= fQueue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					first= null;
+				}
+				if (first == null) {
+					if (stopDrainerIfIdle())
+						return;
+					continue;
+				}
+				batch.add(first);
+				fQueue.drainTo(batch, fBatchSize - 1);
+				for (Event each : batch)
+					deliver(each);
+				batch.clear();
+			}
+		}
+	}
+
+	private void deliver(Event event) {
+		try {
+			if (fFailure == null)
+				notifyDelegate(event.fKind, event.fArgument);
+		} catch (Throwable e) {
+			fFailure= e;
+		} finally {
+			if (event.fDelivered != null)
+				event.fDelivered.countDown();
+		}
+	}
+
+	private void notifyDelegate(Kind kind, Object argument) throws Exception {
+		switch (kind) {
+		case RUN_STARTED:
+			fDelegate.testRunStarted((Description) argument);
+			break;
+		case RUN_FINISHED:
+			fDelegate.testRunFinished((Result) argument);
+			break;
+		case STARTED:
+			fDelegate.testStarted((Description) argument);
+			break;
+		case FINISHED:
+			fDelegate.testFinished((Description) argument);
+			break;
+		case FAILURE:
+			fDelegate.testFailure((Failure) argument);
+			break;
+		case ASSUMPTION_FAILURE:
+			fDelegate.testAssumptionFailure((Failure) argument);
+			break;
+		case IGNORED:
+			fDelegate.testIgnored((Description) argument);
+			break;
+		}
+	}
+}
@@ -9,6 +9,10 @@ import org.junit.runner.Result;
  * and override the appropriate methods. If a listener throws an exception while processing a 
  * test event, it will be removed for the remainder of the test run.</p>
  * 
+ * <p>When tests are run in parallel (for example by a
+ * {@link org.junit.experimental.ParallelComputer}), listener methods may be
+ * called concurrently from several threads.</p>
+ * 
  * <p>For example, suppose you have a <code>Cowbell</code>
  * class that you want to make a noise whenever a test fails. You could write:
  * <pre>
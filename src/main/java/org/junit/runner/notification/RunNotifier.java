@@ -1,11 +1,5 @@
 package org.junit.runner.notification;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-
 import org.junit.internal.AssumptionViolatedException;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
@@ -18,91 +12,148 @@ import org.junit.runner.Result;
  * to a separate class since they should only be called once per run.
  */
 public class RunNotifier {
-	private final List<RunListener> fListeners= 
-		Collections.synchronizedList(new ArrayList<RunListener>());
-	private boolean fPleaseStop= false;
-	private LinkedList<Object> ancestory = new LinkedList<Object>();
+	private static final RunListener[] NO_LISTENERS= new RunListener[0];
+
+	/*
+	 * Copy-on-write: firing an event iterates over whichever array was
+	 * current when it started, without taking a lock; adding or removing a
+	 * listener replaces the array.
+	 */
+	private volatile RunListener[] fListeners= NO_LISTENERS;
+	private volatile boolean fPleaseStop= false;
+	private final Ancestry fAncestry;
+
+	public RunNotifier() {
+		this(Ancestry.EMPTY);
+	}
+
+	private RunNotifier(Ancestry ancestry) {
+		fAncestry= ancestry;
+	}
 	
 	/** Internal use only
 	 */
 	public void addListener(RunListener listener) {
-		fListeners.add(listener);
+		synchronized (this) {
+			RunListener[] listeners= new RunListener[fListeners.length + 1];
+			System.arraycopy(fListeners, 0, listeners, 0, fListeners.length);
+			listeners[fListeners.length]= listener;
+			fListeners= listeners;
+		}
 	}
 
 	/** Internal use only
 	 */
 	public void removeListener(RunListener listener) {
-		fListeners.remove(listener);
-    }
-
-	/**
-	 * This method pushes an object to the test class ancestory.
-	 * Its not pretty, but RunNotifier is the only execution context-like
-	 * structure in JUnit. The ancestory is used to find rules to apply.
-	 * 
-	 * This should probably be an abstraction on the Runner/TestClass level.
-	 * 
-	 * @param The ancestor to push
-	 */
-	public void pushAncestor(Object ancestor) {
-		ancestory.push(ancestor);
+		synchronized (this) {
+			for (int i= 0; i < fListeners.length; i++)
+				if (fListeners[i].equals(listener)) {
+					RunListener[] listeners= new RunListener[fListeners.length - 1];
+					System.arraycopy(fListeners, 0, listeners, 0, i);
+					System.arraycopy(fListeners, i + 1, listeners, i, listeners.length - i);
+					fListeners= listeners;
+					return;
+				}
+		}
 	}
 
 	/**
-	 * Pops the corresponding ancestor.
-	 * @return The popped ancestor
+	 * Returns a notifier that reports to the same listeners as this one, but
+	 * whose {@link #getAncestry()} has {@code ancestor} added. Runners hand
+	 * such a notifier to each child they run, so that children scheduled in
+	 * parallel each see their own ancestry.
+	 * 
+	 * @param ancestor the object (test class, runner, method) being entered
+	 * @return a notifier for running code enclosed by {@code ancestor}
 	 */
-	public Object popAncestor() {
-		return ancestory.pop();
+	public RunNotifier withAncestor(Object ancestor) {
+		return new ChildNotifier(this, getAncestry().with(ancestor));
 	}
 
 	/**
-	 * Provides a copy of the ancestory path.
-	 * @return The ancestory
+	 * The ancestry is used to find rules to apply.
+	 * @return the enclosing test classes, runners and methods, innermost first
 	 */
-	public List<Object> getAncestoryRootToLeafCopy() {
-		return new LinkedList<Object>(ancestory);
+	public Ancestry getAncestry() {
+		return fAncestry;
 	}
 	
-	
-	private abstract class SafeNotifier {
-		void run() {
-			synchronized (fListeners) {
-				for (Iterator<RunListener> all= fListeners.iterator(); all.hasNext();)
-					try {
-						notifyListener(all.next());
-					} catch (Exception e) {
-						all.remove(); // Remove the offending listener first to avoid an infinite loop
-						fireTestFailure(new Failure(Description.TEST_MECHANISM, e));
-					}
-			}
+	private abstract static class SafeNotifier<T> {
+		abstract void notifyListener(RunListener each, T argument) throws Exception;
+	}
+
+	private static final SafeNotifier<Description> RUN_STARTED= new SafeNotifier<Description>() {
+		@Override
+		void notifyListener(RunListener each, Description description) throws Exception {
+			each.testRunStarted(description);
+		}
+	};
+
+	private static final SafeNotifier<Result> RUN_FINISHED= new SafeNotifier<Result>() {
+		@Override
+		void notifyListener(RunListener each, Result result) throws Exception {
+			each.testRunFinished(result);
+		}
+	};
+
+	private static final SafeNotifier<Description> STARTED= new SafeNotifier<Description>() {
+		@Override
+		void notifyListener(RunListener each, Description description) throws Exception {
+			each.testStarted(description);
+		}
+	};
+
+	private static final SafeNotifier<Failure> FAILURE= new SafeNotifier<Failure>() {
+		@Override
+		void notifyListener(RunListener each, Failure failure) throws Exception {
+			each.testFailure(failure);
+		}
+	};
+
+	private static final SafeNotifier<Failure> ASSUMPTION_FAILED= new SafeNotifier<Failure>() {
+		@Override
+		void notifyListener(RunListener each, Failure failure) throws Exception {
+			each.testAssumptionFailure(failure);
+		}
+	};
+
+	private static final SafeNotifier<Description> IGNORED= new SafeNotifier<Description>() {
+		@Override
+		void notifyListener(RunListener each, Description description) throws Exception {
+			each.testIgnored(description);
+		}
+	};
+
+	private static final SafeNotifier<Description> FINISHED= new SafeNotifier<Description>() {
+		@Override
+		void notifyListener(RunListener each, Description description) throws Exception {
+			each.testFinished(description);
 		}
-		
-		abstract protected void notifyListener(RunListener each) throws Exception;
+	};
+
+	private <T> void fire(SafeNotifier<T> notifier, T argument) {
+		RunListener[] listeners= fListeners;
+		for (int i= 0; i < listeners.length; i++)
+			try {
+				notifier.notifyListener(listeners[i], argument);
+			} catch (Exception e) {
+				removeListener(listeners[i]); // Remove the offending listener first to avoid an infinite loop
+				fireTestFailure(new Failure(Description.TEST_MECHANISM, e));
+			}
 	}
 	
 	/**
 	 * Do not invoke. 
 	 */
-	public void fireTestRunStarted(final Description description) {
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testRunStarted(description);
-			};
-		}.run();
+	public void fireTestRunStarted(Description description) {
+		fire(RUN_STARTED, description);
 	}
 	
 	/**
 	 * Do not invoke.
 	 */
-	public void fireTestRunFinished(final Result result) {
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testRunFinished(result);
-			};
-		}.run();
+	public void fireTestRunFinished(Result result) {
+		fire(RUN_FINISHED, result);
 	}
 	
 	/**
@@ -110,28 +161,18 @@ public class RunNotifier {
 	 * @param description the description of the atomic test (generally a class and method name)
 	 * @throws StoppedByUserException thrown if a user has requested that the test run stop
 	 */
-	public void fireTestStarted(final Description description) throws StoppedByUserException {
+	public void fireTestStarted(Description description) throws StoppedByUserException {
 		if (fPleaseStop)
 			throw new StoppedByUserException();
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testStarted(description);
-			};
-		}.run();
+		fire(STARTED, description);
 	}
 
 	/**
 	 * Invoke to tell listeners that an atomic test failed.
 	 * @param failure the description of the test that failed and the exception thrown
 	 */
-	public void fireTestFailure(final Failure failure) {
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testFailure(failure);
-			};
-		}.run();
+	public void fireTestFailure(Failure failure) {
+		fire(FAILURE, failure);
 	}
 
 	/**
@@ -142,26 +183,16 @@ public class RunNotifier {
 	 *            the description of the test that failed and the
 	 *            {@link AssumptionViolatedException} thrown
 	 */
-	public void fireTestAssumptionFailed(final Failure failure) {
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testAssumptionFailure(failure);
-			};
-		}.run();
+	public void fireTestAssumptionFailed(Failure failure) {
+		fire(ASSUMPTION_FAILED, failure);
 	}
 
 	/**
 	 * Invoke to tell listeners that an atomic test was ignored.
 	 * @param description the description of the ignored test
 	 */
-	public void fireTestIgnored(final Description description) {
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testIgnored(description);
-			}
-		}.run();
+	public void fireTestIgnored(Description description) {
+		fire(IGNORED, description);
 	}
 
 	/**
@@ -170,13 +201,8 @@ public class RunNotifier {
 	 * as listeners are likely to expect them to come in pairs.
 	 * @param description the description of the test that finished
 	 */
-	public void fireTestFinished(final Description description) {
-		new SafeNotifier() {
-			@Override
-			protected void notifyListener(RunListener each) throws Exception {
-				each.testFinished(description);
-			};
-		}.run();
+	public void fireTestFinished(Description description) {
+		fire(FINISHED, description);
 	}
 	
 	/**
@@ -193,6 +219,81 @@ public class RunNotifier {
 	 * Internal use only. The Result's listener must be first.
 	 */
 	public void addFirstListener(RunListener listener) {
-		fListeners.add(0, listener);
+		synchronized (this) {
+			RunListener[] listeners= new RunListener[fListeners.length + 1];
+			System.arraycopy(fListeners, 0, listeners, 1, fListeners.length);
+			listeners[0]= listener;
+			fListeners= listeners;
+		}
+	}
+
+	private static class ChildNotifier extends RunNotifier {
+		private final RunNotifier fParent;
+
+		ChildNotifier(RunNotifier parent, Ancestry ancestry) {
+			super(ancestry);
+			fParent= parent;
+		}
+
+		@Override
+		public RunNotifier withAncestor(Object ancestor) {
+			return new ChildNotifier(fParent, getAncestry().with(ancestor));
+		}
+
+		@Override
+		public void addListener(RunListener listener) {
+			fParent.addListener(listener);
+		}
+
+		@Override
+		public void removeListener(RunListener listener) {
+			fParent.removeListener(listener);
+		}
+
+		@Override
+		public void addFirstListener(RunListener listener) {
+			fParent.addFirstListener(listener);
+		}
+
+		@Override
+		public void fireTestRunStarted(Description description) {
+			fParent.fireTestRunStarted(description);
+		}
+
+		@Override
+		public void fireTestRunFinished(Result result) {
+			fParent.fireTestRunFinished(result);
+		}
+
+		@Override
+		public void fireTestStarted(Description description)
+				throws StoppedByUserException {
+			fParent.fireTestStarted(description);
+		}
+
+		@Override
+		public void fireTestFailure(Failure failure) {
+			fParent.fireTestFailure(failure);
+		}
+
+		@Override
+		public void fireTestAssumptionFailed(Failure failure) {
+			fParent.fireTestAssumptionFailed(failure);
+		}
+
+		@Override
+		public void fireTestIgnored(Description description) {
+			fParent.fireTestIgnored(description);
+		}
+
+		@Override
+		public void fireTestFinished(Description description) {
+			fParent.fireTestFinished(description);
+		}
+
+		@Override
+		public void pleaseStop() {
+			fParent.pleaseStop();
+		}
 	}
-}
\ No newline at end of file
+}
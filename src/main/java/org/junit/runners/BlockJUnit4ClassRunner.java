@@ -3,8 +3,9 @@ package org.junit.runners;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.junit.After;
 import org.junit.Before;
@@ -20,6 +21,7 @@ import org.junit.internal.runners.model.ReflectiveCallable;
 import org.junit.internal.runners.statements.ExpectException;
 import org.junit.internal.runners.statements.Fail;
 import org.junit.internal.runners.statements.FailOnTimeout;
+import org.junit.internal.runners.statements.FailOnWatchdogTimeout;
 import org.junit.internal.runners.statements.InvokeMethod;
 import org.junit.internal.runners.statements.RunAfters;
 import org.junit.internal.runners.statements.RunBefores;
@@ -52,6 +54,39 @@ import org.junit.runners.model.TestClass;
  * </ul>
  */
 public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
+	/*
+	 * The parts of each test's statement that depend only on the class and
+	 * the method are computed once, instead of once per test.
+	 */
+	private final List<FrameworkMethod> fBefores;
+
+	private final List<FrameworkMethod> fAfters;
+
+	private final List<FrameworkField> fMethodRuleFields;
+
+	private final Map<FrameworkMethod, TestPlan> fTestPlans= new ConcurrentHashMap<FrameworkMethod, TestPlan>();
+
+	private final Map<TestClass, List<FrameworkField>> fPropagatedRuleFields= new ConcurrentHashMap<TestClass, List<FrameworkField>>();
+
+	private final Map<FrameworkMethod, Description> fDescriptions= new ConcurrentHashMap<FrameworkMethod, Description>();
+
+	/**
+	 * What the {@code @Test} annotation of a method asks for
+	 */
+	private static class TestPlan {
+		final Class<? extends Throwable> fExpectedException;
+
+		final long fTimeout;
+
+		final boolean fTimeoutOnCallingThread;
+
+		TestPlan(Test annotation) {
+			fExpectedException= getExpectedException(annotation);
+			fTimeout= getTimeout(annotation);
+			fTimeoutOnCallingThread= annotation != null
+					&& annotation.timeoutOnCallingThread();
+		}
+	}
 
 	/**
 	 * Creates a BlockJUnit4ClassRunner to run {@code klass}
@@ -61,6 +96,12 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	 */
 	public BlockJUnit4ClassRunner(Class<?> klass) throws InitializationError {
 		super(klass);
+		fBefores= getTestClass().getAnnotatedMethods(Before.class);
+		fAfters= getTestClass().getAnnotatedMethods(After.class);
+		fMethodRuleFields= new ArrayList<FrameworkField>();
+		for (FrameworkField each : ruleFields())
+			if (MethodRule.class.isAssignableFrom(each.getField().getType()))
+				fMethodRuleFields.add(each);
 	}
 
 	//
@@ -77,7 +118,7 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 
 		eachNotifier.fireTestStarted();
 		try {
-			methodBlock(method, notifier).evaluate();
+			withinTimeBudget(methodBlock(method, notifier)).evaluate();
 		} catch (AssumptionViolatedException e) {
 			eachNotifier.addFailedAssumption(e);
 		} catch (Throwable e) {
@@ -95,30 +136,30 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	}
 
 	private List<MethodRule> propagatedRules(Object target, RunNotifier notifier) {
-		final List<Object> ancestory = notifier.getAncestoryRootToLeafCopy();
-		List<MethodRule> methodRules = new LinkedList<MethodRule>();
-		for (Object ancestor : ancestory) {
+		List<MethodRule> methodRules = new ArrayList<MethodRule>();
+		for (Object ancestor : notifier.getAncestry()) {
 			if(ancestor instanceof TestClass) {
-				TestClass testClass = (TestClass) ancestor;
-				addPropagatedMethodRules(methodRules, testClass);
+				for (FrameworkField each : propagatedRuleFields((TestClass) ancestor))
+					methodRules.add(getStaticMethodRules(each));
 			}
 		}
 		
 		return methodRules;
 	}
 
-	private void addPropagatedMethodRules(List<MethodRule> methodRules,
-			TestClass testClass) {
-		List<FrameworkField> annotatedFields= testClass.getAnnotatedFields(Rule.class);
-		for (FrameworkField frameworkField : annotatedFields) {
-			Field field= frameworkField.getField();
-			Class<?> type= field.getType();
-			if(MethodRule.class.isAssignableFrom(type) && 
-					field.isAnnotationPresent(Propagate.class)) {
-					MethodRule methodRule = getStaticMethodRules(frameworkField);
-					methodRules.add(methodRule);
+	private List<FrameworkField> propagatedRuleFields(TestClass testClass) {
+		List<FrameworkField> fields= fPropagatedRuleFields.get(testClass);
+		if (fields == null) {
+			fields= new ArrayList<FrameworkField>();
+			for (FrameworkField frameworkField : testClass.getAnnotatedFields(Rule.class)) {
+				Field field= frameworkField.getField();
+				if(MethodRule.class.isAssignableFrom(field.getType()) && 
+						field.isAnnotationPresent(Propagate.class))
+					fields.add(frameworkField);
 			}
+			fPropagatedRuleFields.put(testClass, fields);
 		}
+		return fields;
 	}
 
 	private MethodRule getStaticMethodRules(FrameworkField frameworkField) {
@@ -132,8 +173,13 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	
 	@Override
 	protected Description describeChild(FrameworkMethod method) {
-		return Description.createTestDescription(getTestClass().getJavaClass(),
-				testName(method), method.getAnnotations());
+		Description description= fDescriptions.get(method);
+		if (description == null) {
+			description= Description.createTestDescription(getTestClass().getJavaClass(),
+					testName(method), method.getAnnotations());
+			fDescriptions.put(method, description);
+		}
+		return description;
 	}
 
 	@Override
@@ -148,10 +194,11 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	/**
 	 * Returns the methods that run tests. Default implementation 
 	 * returns all methods annotated with {@code @Test} on this 
-	 * class and superclasses that are not overridden.
+	 * class and superclasses that are not overridden. The returned list is
+	 * a copy, which subclasses may modify.
 	 */
 	protected List<FrameworkMethod> computeTestMethods() {
-		return getTestClass().getAnnotatedMethods(Test.class);
+		return new ArrayList<FrameworkMethod>(getTestClass().getAnnotatedMethods(Test.class));
 	}
 
 	@Override
@@ -336,9 +383,8 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	@Deprecated
 	protected Statement possiblyExpectingExceptions(FrameworkMethod method,
 			Object test, Statement next) {
-		Test annotation= method.getAnnotation(Test.class);
-		return expectsException(annotation) ? new ExpectException(next,
-				getExpectedException(annotation)) : next;
+		Class<? extends Throwable> expected= testPlan(method).fExpectedException;
+		return expected != null ? new ExpectException(next, expected) : next;
 	}
 
 	/**
@@ -351,8 +397,12 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	@Deprecated
 	protected Statement withPotentialTimeout(FrameworkMethod method,
 			Object test, Statement next) {
-		long timeout= getTimeout(method.getAnnotation(Test.class));
-		return timeout > 0 ? new FailOnTimeout(next, timeout) : next;
+		TestPlan plan= testPlan(method);
+		if (plan.fTimeout <= 0)
+			return next;
+		if (plan.fTimeoutOnCallingThread)
+			return new FailOnWatchdogTimeout(next, plan.fTimeout);
+		return new FailOnTimeout(next, plan.fTimeout);
 	}
 
 	/**
@@ -365,9 +415,8 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	@Deprecated
 	protected Statement withBefores(FrameworkMethod method, Object target,
 			Statement statement) {
-		List<FrameworkMethod> befores= getTestClass().getAnnotatedMethods(Before.class);
-		return befores.isEmpty() ? statement : 
-			new RunBefores(statement, befores, target);
+		return fBefores.isEmpty() ? statement : 
+			new RunBefores(statement, fBefores, target);
 	}
 
 	/**
@@ -382,9 +431,8 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	@Deprecated
 	protected Statement withAfters(FrameworkMethod method, Object target,
 			Statement statement) {
-		List<FrameworkMethod> afters= getTestClass().getAnnotatedMethods(After.class);
-		return afters.isEmpty() ? statement :
-			new RunAfters(statement, afters, target);
+		return fAfters.isEmpty() ? statement :
+			new RunAfters(statement, fAfters, target);
 	}
 	
 	private Statement withRules(FrameworkMethod method, Object target,
@@ -400,11 +448,9 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 	 * that runs each method in the tested class.
 	 */
 	protected List<MethodRule> rules(Object test) {
-		List<MethodRule> results= new ArrayList<MethodRule>();
-		for (FrameworkField each : ruleFields())
-			if(MethodRule.class.isAssignableFrom(each.getField().getType())) {
-				results.add(createRule(test, each));
-			}
+		List<MethodRule> results= new ArrayList<MethodRule>(fMethodRuleFields.size());
+		for (FrameworkField each : fMethodRuleFields)
+			results.add(createRule(test, each));
 		return results;
 	}
 
@@ -428,18 +474,23 @@ public class BlockJUnit4ClassRunner extends ParentRunner<FrameworkMethod> {
 		return new EachTestNotifier(notifier, description);
 	}
 
-	private Class<? extends Throwable> getExpectedException(Test annotation) {
+	private TestPlan testPlan(FrameworkMethod method) {
+		TestPlan plan= fTestPlans.get(method);
+		if (plan == null) {
+			plan= new TestPlan(method.getAnnotation(Test.class));
+			fTestPlans.put(method, plan);
+		}
+		return plan;
+	}
+
+	private static Class<? extends Throwable> getExpectedException(Test annotation) {
 		if (annotation == null || annotation.expected() == None.class)
 			return null;
 		else
 			return annotation.expected();
 	}
 
-	private boolean expectsException(Test annotation) {
-		return getExpectedException(annotation) != null;
-	}
-
-	private long getTimeout(Test annotation) {
+	private static long getTimeout(Test annotation) {
 		if (annotation == null)
 			return 0;
 		return annotation.timeout();
@@ -5,8 +5,10 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -18,6 +20,7 @@ import org.junit.internal.runners.model.EachTestNotifier;
 import org.junit.internal.runners.model.MultipleFailureException;
 import org.junit.internal.runners.statements.RunAfters;
 import org.junit.internal.runners.statements.RunBefores;
+import org.junit.internal.runners.statements.WithinTimeBudget;
 import org.junit.rules.SuiteRule;
 import org.junit.rules.TestCaseRule;
 import org.junit.runner.Description;
@@ -27,6 +30,7 @@ import org.junit.runner.manipulation.Filterable;
 import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.manipulation.Sortable;
 import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.Ancestry;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runner.notification.StoppedByUserException;
 import org.junit.runners.model.FrameworkField;
@@ -35,6 +39,7 @@ import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.RunnerScheduler;
 import org.junit.runners.model.Statement;
 import org.junit.runners.model.TestClass;
+import org.junit.runners.model.TimeBudget;
 
 /**
  * Provides most of the functionality specific to a Runner that implements a
@@ -54,6 +59,16 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 
 	private Sorter fSorter= Sorter.NULL;
 
+	/*
+	 * Filtering and sorting the children, and describing them, are done
+	 * once and remembered until the next call to filter or sort.
+	 */
+	private volatile List<T> fFilteredChildren= null;
+
+	private volatile Description fDescription= null;
+
+	private volatile TimeBudget fTimeBudget= null;
+
 	private RunnerScheduler fScheduler= new RunnerScheduler() {	
 		public void schedule(Runnable childStatement) {
 			childStatement.run();
@@ -69,7 +84,7 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 	 * @throws InitializationError 
 	 */
 	protected ParentRunner(Class<?> testClass) throws InitializationError {
-		fTestClass= new TestClass(testClass);
+		fTestClass= TestClass.forClass(testClass);
 		validate();
 	}
 
@@ -162,14 +177,14 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 	 * @return
 	 */
 	private Statement withRules(final Statement statement, RunNotifier notifier) {
-		final List<Object> ancestory = notifier.getAncestoryRootToLeafCopy();
+		final Ancestry ancestry= notifier.getAncestry();
 		return new Statement() {
 			@Override
 			public void evaluate() throws Throwable {
 				Statement localStatement = statement;
 				localStatement= withLocalTestCaseRules(localStatement);
-				localStatement= withPropagatedTestCaseRules(ancestory, localStatement);
-				localStatement= withSuiteRules(ancestory, localStatement);
+				localStatement= withPropagatedTestCaseRules(ancestry, localStatement);
+				localStatement= withSuiteRules(ancestry, localStatement);
 				localStatement.evaluate();
 			}
 
@@ -179,13 +194,13 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 	/**
 	 * Appends propagated and local suite rules if the current class is a
 	 * suite
-	 * @param ancestory
+	 * @param ancestry
 	 * @param statement
 	 * @return
 	 */
-	private Statement withSuiteRules(final List<Object> ancestory,
+	private Statement withSuiteRules(final Ancestry ancestry,
 			Statement statement) {
-		for (Object ancestor : ancestory) {
+		for (Object ancestor : ancestry) {
 			if(ancestor instanceof Suite && !isTestCase(fTestClass)) {
 				TestClass testClass= ((Suite) ancestor).getTestClass();
 				if(isTestCase(testClass)) continue;
@@ -203,15 +218,15 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 	/**
 	 * Appends propagated TestCaseRules if the current class is a 
 	 * test case.
-	 * @param ancestory
+	 * @param ancestry
 	 * @param localStatement
 	 * @return
 	 * @throws IllegalAccessException
 	 */
 	private Statement withPropagatedTestCaseRules(
-			final List<Object> ancestory, Statement localStatement)
+			final Ancestry ancestry, Statement localStatement)
 			throws IllegalAccessException {
-		for (Object ancestor : ancestory) {
+		for (Object ancestor : ancestry) {
 			if(ancestor instanceof TestClass) {
 				List<TestCaseRule> rules= getTestCaseRules((TestClass) ancestor);
 				for (TestCaseRule testCaseRule : rules) {
@@ -339,9 +354,7 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 		return new Statement() {
 			@Override
 			public void evaluate() {
-				notifier.pushAncestor(fTestClass);
-				runChildren(notifier);
-				notifier.popAncestor();
+				runChildren(notifier.withAncestor(fTestClass));
 			}
 		};
 	}
@@ -350,14 +363,34 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 		for (final T each : getFilteredChildren())
 			fScheduler.schedule(new Runnable() {			
 				public void run() {
-					notifier.pushAncestor(each);
-					ParentRunner.this.runChild(each, notifier);
-					notifier.popAncestor();
+					runChildWithinBudget(each, notifier.withAncestor(each));
 				}
 			});
 		fScheduler.finished();
 	}
 
+	/*
+	 * The budget is checked when the child is about to run rather than when
+	 * it is scheduled, so that children still queued in the scheduler when
+	 * the budget runs out are skipped. Running children are interrupted by
+	 * withinTimeBudget(), not here, so the interruption never reaches the
+	 * listeners.
+	 */
+	private void runChildWithinBudget(T child, RunNotifier notifier) {
+		TimeBudget budget= fTimeBudget;
+		if (budget != null && budget.isExhausted())
+			fireIgnored(describeChild(child), notifier);
+		else
+			runChild(child, notifier);
+	}
+
+	private void fireIgnored(Description description, RunNotifier notifier) {
+		if (description.isTest())
+			notifier.fireTestIgnored(description);
+		for (Description each : description.getChildren())
+			fireIgnored(each, notifier);
+	}
+
 	/**
 	 * Returns a name used to describe this Runner
 	 */
@@ -382,10 +415,14 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 	
 	@Override
 	public Description getDescription() {
-		Description description= Description.createSuiteDescription(getName(),
-				fTestClass.getAnnotations());
-		for (T child : getFilteredChildren())
-			description.addChild(describeChild(child));
+		Description description= fDescription;
+		if (description == null) {
+			description= Description.createSuiteDescription(getName(),
+					fTestClass.getAnnotations());
+			for (T child : getFilteredChildren())
+				description.addChild(describeChild(child));
+			fDescription= description;
+		}
 		return description;
 	}
 
@@ -411,6 +448,7 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 
 	public void filter(Filter filter) throws NoTestsRemainException {
 		fFilter= filter;
+		invalidateChildren();
 
 		for (T each : getChildren())
 			if (shouldRun(each))
@@ -420,6 +458,7 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 
 	public void sort(Sorter sorter) {
 		fSorter= sorter;
+		invalidateChildren();
 	}
 	
 	//
@@ -433,7 +472,22 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 			throw new InitializationError(errors);
 	}
 
+	private void invalidateChildren() {
+		fFilteredChildren= null;
+		fDescription= null;
+	}
+
 	private List<T> getFilteredChildren() {
+		List<T> filtered= fFilteredChildren;
+		if (filtered == null) {
+			filtered= computeFilteredChildren();
+			fFilteredChildren= filtered;
+		}
+		return filtered;
+	}
+
+	private List<T> computeFilteredChildren() {
+		final Map<T, Description> descriptions= new HashMap<T, Description>();
 		ArrayList<T> filtered= new ArrayList<T>();
 		for (T each : getChildren())
 			if (shouldRun(each))
@@ -444,8 +498,16 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 				} catch (NoTestsRemainException e) {
 					// don't add it
 				}
-		Collections.sort(filtered, comparator());
-		return filtered;
+		if (fSorter != Sorter.NULL) {
+			for (T each : filtered)
+				descriptions.put(each, describeChild(each));
+			Collections.sort(filtered, new Comparator<T>() {
+				public int compare(T o1, T o2) {
+					return fSorter.compare(descriptions.get(o1), descriptions.get(o2));
+				}
+			});
+		}
+		return Collections.unmodifiableList(filtered);
 	}
 
 	private void sortChild(T child) {
@@ -461,14 +523,6 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 		return fFilter == null || fFilter.shouldRun(describeChild(each));
 	}
 
-	private Comparator<? super T> comparator() {
-		return new Comparator<T>() {
-			public int compare(T o1, T o2) {
-				return fSorter.compare(describeChild(o1), describeChild(o2));
-			}
-		};
-	}
-
 	/**
 	 * Sets a scheduler that determines the order and parallelization
 	 * of children.  Highly experimental feature that may change.
@@ -476,4 +530,25 @@ public abstract class ParentRunner<T> extends Runner implements Filterable,
 	public void setScheduler(RunnerScheduler scheduler) {
 		this.fScheduler = scheduler;
 	}
+
+	/**
+	 * Sets a wall-clock budget for running the children. Once it is
+	 * exhausted, children that have not started are reported as ignored and
+	 * running children are interrupted.  Highly experimental feature that may
+	 * change.
+	 */
+	public void setTimeBudget(TimeBudget budget) {
+		fTimeBudget= budget;
+	}
+
+	/**
+	 * Returns a {@link Statement}: evaluate {@code statement}, interrupting
+	 * it if the time budget runs out before it finishes. Subclasses should
+	 * wrap the statement of each child in {@link #runChild(Object, RunNotifier)},
+	 * leaving out the notification of listeners.
+	 */
+	protected Statement withinTimeBudget(Statement statement) {
+		TimeBudget budget= fTimeBudget;
+		return budget == null ? statement : new WithinTimeBudget(statement, budget);
+	}
 }
\ No newline at end of file
@@ -6,8 +6,6 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.List;
 
-import org.junit.internal.runners.model.ReflectiveCallable;
-
 /**
  * Represents a method on a test class to be invoked at the appropriate point in
  * test execution. These methods are usually marked with an annotation (such as
@@ -15,8 +13,12 @@ import org.junit.internal.runners.model.ReflectiveCallable;
  * {@code @AfterClass}, etc.)
  */
 public class FrameworkMethod extends FrameworkMember<FrameworkMethod> {
+	private static final Object[] NO_PARAMETERS= new Object[0];
+
 	final Method fMethod;
 
+	private volatile boolean fBound= false;
+
 	/**
 	 * Returns a new {@code FrameworkMethod} for {@code method}
 	 */
@@ -36,14 +38,43 @@ public class FrameworkMethod extends FrameworkMember<FrameworkMethod> {
 	 * parameters {@code params}. {@link InvocationTargetException}s thrown are
 	 * unwrapped, and their causes rethrown.
 	 */
-	public Object invokeExplosively(final Object target, final Object... params)
+	public Object invokeExplosively(Object target, Object... params)
 			throws Throwable {
-		return new ReflectiveCallable() {
-			@Override
-			protected Object runReflectiveCall() throws Throwable {
-				return fMethod.invoke(target, params);
-			}
-		}.run();
+		try {
+			return boundMethod().invoke(target, params);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	/**
+	 * Returns the result of invoking this no-argument method on
+	 * {@code target}, without allocating a parameter array.
+	 * {@link InvocationTargetException}s thrown are unwrapped, and their
+	 * causes rethrown.
+	 */
+	public Object invokeExplosively(Object target) throws Throwable {
+		return invokeExplosively(target, NO_PARAMETERS);
+	}
+
+	/*
+	 * The first invocation switches off the access check of public methods
+	 * on public classes, which the reflection API would otherwise repeat on
+	 * every call. Anything less accessible keeps its checks, so this never
+	 * lets a test call something it could not call before.
+	 */
+	private Method boundMethod() {
+		if (!fBound) {
+			if (Modifier.isPublic(fMethod.getModifiers())
+					&& Modifier.isPublic(fMethod.getDeclaringClass().getModifiers()))
+				try {
+					fMethod.setAccessible(true);
+				} catch (RuntimeException e) {
+					// a security manager (or module system) says no: keep the checks
+				}
+			fBound= true;
+		}
+		return fMethod;
 	}
 
 	/**
@@ -4,29 +4,75 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 
 /**
- * Wraps a class to be run, providing method validation and annotation searching
+ * Wraps a class to be run, providing method validation and annotation searching.
+ * A {@code TestClass} does not change once constructed, so a single instance
+ * can be shared by all runners of a class, even across threads.
  */
 public class TestClass {
+	/*
+	 * Both keys and values are weak: a TestClass references its class, so a
+	 * strongly (or softly) held value would keep its own key, and the class
+	 * loader, alive.
+	 */
+	private static final Map<Class<?>, WeakReference<TestClass>> CACHE= new WeakHashMap<Class<?>, WeakReference<TestClass>>();
+
+	/**
+	 * Returns a {@code TestClass} wrapping {@code klass}. The class is
+	 * scanned for annotations only the first time it is asked for; later
+	 * calls return the same instance for as long as it is still in use,
+	 * typically by the runners of the current run. The cache is keyed by the
+	 * class itself, so classes with the same name from different class
+	 * loaders are kept apart, and it does not keep classes (or their
+	 * loaders) from being unloaded.
+	 */
+	public static TestClass forClass(Class<?> klass) {
+		if (klass == null)
+			return new TestClass(null);
+		synchronized (CACHE) {
+			WeakReference<TestClass> reference= CACHE.get(klass);
+			TestClass testClass= reference == null ? null : reference.get();
+			if (testClass == null) {
+				testClass= new TestClass(klass);
+				CACHE.put(klass, new WeakReference<TestClass>(testClass));
+			}
+			return testClass;
+		}
+	}
+
+	/**
+	 * Forgets every {@code TestClass} cached by {@link #forClass(Class)}, so
+	 * that the next call rescans its class even if the old instance is still
+	 * in use.
+	 */
+	public static void clearCache() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+
 	private final Class<?> fClass;
 
-	private Map<Class<?>, List<FrameworkMethod>> fMethodsForAnnotations= new HashMap<Class<?>, List<FrameworkMethod>>();
-	private Map<Class<?>, List<FrameworkField>> fFieldsForAnnotations= new HashMap<Class<?>, List<FrameworkField>>();
+	private final Map<Class<?>, List<FrameworkMethod>> fMethodsForAnnotations;
+	private final Map<Class<?>, List<FrameworkField>> fFieldsForAnnotations;
 
 	/**
 	 * Creates a {@code TestClass} wrapping {@code klass}. Each time this
 	 * constructor executes, the class is scanned for annotations, which can be
 	 * an expensive process (we hope in future JDK's it will not be.) Therefore,
-	 * try to share instances of {@code TestClass} where possible.
+	 * use {@link #forClass(Class)} where possible.
 	 */
 	public TestClass(Class<?> klass) {
 		fClass= klass;
@@ -34,18 +80,33 @@ public class TestClass {
 			throw new IllegalArgumentException(
 					"Test class can only have one constructor");
 
+		Map<Class<?>, List<FrameworkMethod>> methodsForAnnotations= new HashMap<Class<?>, List<FrameworkMethod>>();
+		Map<Class<?>, List<FrameworkField>> fieldsForAnnotations= new HashMap<Class<?>, List<FrameworkField>>();
 		for (Class<?> eachClass : getSuperClasses(fClass)) {
 			for (Method eachMethod : eachClass.getDeclaredMethods())
-				addToAnnotationLists(new FrameworkMethod(eachMethod), fMethodsForAnnotations);
+				addToAnnotationLists(new FrameworkMethod(eachMethod), methodsForAnnotations);
 			for (Field eachField : eachClass.getDeclaredFields())
-				addToAnnotationLists(new FrameworkField(eachField), fFieldsForAnnotations);
+				addToAnnotationLists(new FrameworkField(eachField), fieldsForAnnotations);
 		}
+		fMethodsForAnnotations= makeDeeplyUnmodifiable(methodsForAnnotations);
+		fFieldsForAnnotations= makeDeeplyUnmodifiable(fieldsForAnnotations);
+	}
+
+	private static <T> Map<Class<?>, List<T>> makeDeeplyUnmodifiable(
+			Map<Class<?>, List<T>> source) {
+		for (Map.Entry<Class<?>, List<T>> each : source.entrySet())
+			each.setValue(Collections.unmodifiableList(each.getValue()));
+		return Collections.unmodifiableMap(source);
 	}
 
 	private <T extends FrameworkMember<T>> void addToAnnotationLists(T member, Map<Class<?>, List<T>> map) {
 		for (Annotation each : member.getAnnotations()) {
 			Class<? extends Annotation> type= each.annotationType();
-			List<T> members= getAnnotatedMembers(map, type);
+			List<T> members= map.get(type);
+			if (members == null) {
+				members= new ArrayList<T>();
+				map.put(type, members);
+			}
 			if (member.isShadowedBy(members))
 				return;
 			if (runsTopToBottom(type))
@@ -58,6 +119,7 @@ public class TestClass {
 	/**
 	 * Returns, efficiently, all the non-overridden methods in this class and
 	 * its superclasses that are annotated with {@code annotationClass}.
+	 * The returned list cannot be modified.
 	 */
 	public List<FrameworkMethod> getAnnotatedMethods(
 			Class<? extends Annotation> annotationClass) {
@@ -67,6 +129,7 @@ public class TestClass {
 	/**
 	 * Returns, efficiently, all the non-overridden fields in this class and
 	 * its superclasses that are annotated with {@code annotationClass}.
+	 * The returned list cannot be modified.
 	 */
 	public List<FrameworkField> getAnnotatedFields(Class<? extends Annotation> annotationClass) {
 		return getAnnotatedMembers(fFieldsForAnnotations, annotationClass);
@@ -74,9 +137,10 @@ public class TestClass {
 
 	private <T> List<T> getAnnotatedMembers(Map<Class<?>, List<T>> map,
 			Class<? extends Annotation> type) {
-		if (!map.containsKey(type))
-			map.put(type, new ArrayList<T>());
-		return map.get(type);
+		List<T> members= map.get(type);
+		if (members == null)
+			return Collections.emptyList();
+		return members;
 	}
 
 	private boolean runsTopToBottom(Class<? extends Annotation> annotation) {
@@ -0,0 +1,135 @@
+package org.junit.runners.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A wall-clock budget for running the children of one or more
+ * {@link org.junit.runners.ParentRunner}s. The clock starts when the first
+ * child is about to run. Once the budget is exhausted, children that have not
+ * started yet are not run but reported as ignored, and the statements of
+ * children that are still running are interrupted.
+ *
+ * A budget may have a parent budget (for example, a budget per class inside
+ * a budget for the whole run); it is exhausted as soon as either is.
+ *
+ * WARNING: still experimental, may go away.
+ */
+public class TimeBudget {
+	private static Timer fgTimer= null;
+
+	private final long fMillis;
+
+	private final TimeBudget fParent;
+
+	private final List<Thread> fRunning= new ArrayList<Thread>();
+
+	private long fDeadline;
+
+	private boolean fStarted= false;
+
+	private boolean fExpired= false;
+
+	private TimerTask fExpiry= null;
+
+	/**
+	 * Creates a budget of {@code millis} milliseconds
+	 */
+	public TimeBudget(long millis) {
+		this(millis, null);
+	}
+
+	/**
+	 * Creates a budget of {@code millis} milliseconds that is also exhausted
+	 * when {@code parent} is
+	 */
+	public TimeBudget(long millis, TimeBudget parent) {
+		if (millis < 0)
+			throw new IllegalArgumentException("millis must not be negative, was " + millis);
+		fMillis= millis;
+		fParent= parent;
+	}
+
+	/**
+	 * @return true if this budget, or its parent, has run out. Starts the
+	 * clock if it has not been started yet.
+	 */
+	public boolean isExhausted() {
+		synchronized (this) {
+			startIfNeeded();
+			if (!fExpired && System.nanoTime() - fDeadline >= 0)
+				fExpired= true;
+			if (fExpired)
+				return true;
+		}
+		return fParent != null && fParent.isExhausted();
+	}
+
+	/**
+	 * Registers the calling thread as evaluating a statement within this
+	 * budget, so that it is interrupted if the budget runs out before
+	 * {@link #exit()}. Only the statement should run in between, not the
+	 * notification of listeners.
+	 */
+	public void enter() {
+		synchronized (this) {
+			startIfNeeded();
+			fRunning.add(Thread.currentThread());
+			if (fExpiry == null && !fExpired) {
+				fExpiry= new TimerTask() {
+					@Override
+					public void run() {
+						expire();
+					}
+				};
+				long remaining= TimeUnit.NANOSECONDS.toMillis(fDeadline - System.nanoTime());
+				timer().schedule(fExpiry, Math.max(0, remaining));
+			}
+		}
+		if (fParent != null)
+			fParent.enter();
+	}
+
+	/**
+	 * Unregisters the calling thread. If the budget ran out meanwhile, the
+	 * interruption meant for the statement is cleared. Once no thread is
+	 * registered, the budget no longer keeps a task on its timer.
+	 */
+	public void exit() {
+		if (fParent != null)
+			fParent.exit();
+		synchronized (this) {
+			fRunning.remove(Thread.currentThread());
+			if (fExpired)
+				Thread.interrupted();
+			if (fRunning.isEmpty() && fExpiry != null) {
+				fExpiry.cancel();
+				fExpiry= null;
+				timer().purge();
+			}
+		}
+	}
+
+	private void startIfNeeded() {
+		if (fStarted)
+			return;
+		fStarted= true;
+		fDeadline= System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fMillis);
+	}
+
+	private synchronized void expire() {
+		fExpiry= null;
+		fExpired= true;
+		for (Thread each : fRunning)
+			each.interrupt();
+	}
+
+	private static synchronized Timer timer() {
+		if (fgTimer == null)
+			fgTimer= new Timer("junit-time-budget", true);
+		return fgTimer;
+	}
+}
@@ -6,6 +6,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 import org.junit.tests.assertion.AssertionTest;
+import org.junit.tests.assertion.DeepEqualsTest;
+import org.junit.tests.assertion.LargeComparisonTest;
+import org.junit.tests.assertion.LazyAssertTest;
 import org.junit.tests.assertion.BothTest;
 import org.junit.tests.assertion.EachTest;
 import org.junit.tests.deprecated.JUnit4ClassRunnerTest;
@@ -16,11 +19,17 @@ import org.junit.tests.experimental.AssumptionTest;
 import org.junit.tests.experimental.AssumptionViolatedExceptionTest;
 import org.junit.tests.experimental.ExperimentalTests;
 import org.junit.tests.experimental.MatcherTest;
+import org.junit.tests.experimental.ForkComputerTest;
+import org.junit.tests.experimental.TimeBudgetComputerTest;
 import org.junit.tests.experimental.categories.CategoryTest;
 import org.junit.tests.experimental.max.JUnit38SortingTest;
+import org.junit.tests.experimental.max.LongestFirstComputerTest;
+import org.junit.tests.experimental.max.MaxHistoryTest;
 import org.junit.tests.experimental.max.MaxStarterTest;
+import org.junit.tests.experimental.max.TestImpactTest;
 import org.junit.tests.experimental.parallel.ParallelClassTest;
 import org.junit.tests.experimental.parallel.ParallelMethodTest;
+import org.junit.tests.experimental.parallel.ParallelSchedulerTest;
 import org.junit.tests.experimental.rules.ContainerRulesTest;
 import org.junit.tests.experimental.rules.ExpectedExceptionRuleTest;
 import org.junit.tests.experimental.rules.ExternalResourceRuleTest;
@@ -28,6 +37,7 @@ import org.junit.tests.experimental.rules.RulesTest;
 import org.junit.tests.experimental.rules.NameRulesTest;
 import org.junit.tests.experimental.rules.TempFolderRuleTest;
 import org.junit.tests.experimental.rules.TimeoutRuleTest;
+import org.junit.tests.experimental.rules.BoundedErrorCollectorTest;
 import org.junit.tests.experimental.rules.VerifierRuleTest;
 import org.junit.tests.experimental.theories.AllMembersSupplierTest;
 import org.junit.tests.experimental.theories.runner.TheoriesPerformanceTest;
@@ -39,12 +49,15 @@ import org.junit.tests.junit3compatibility.JUnit38ClassRunnerTest;
 import org.junit.tests.junit3compatibility.OldTestClassAdaptingListenerTest;
 import org.junit.tests.junit3compatibility.OldTests;
 import org.junit.tests.junit3compatibility.SuiteMethodTest;
+import org.junit.tests.listening.AsynchronousRunListenerTest;
 import org.junit.tests.listening.ListenerTest;
 import org.junit.tests.listening.RunnerTest;
 import org.junit.tests.listening.TestListenerTest;
 import org.junit.tests.listening.TextListenerTest;
 import org.junit.tests.listening.UserStopTest;
+import org.junit.tests.listening.XmlListenerTest;
 import org.junit.tests.manipulation.FilterableTest;
+import org.junit.tests.manipulation.ShardFilterTest;
 import org.junit.tests.manipulation.SingleMethodTest;
 import org.junit.tests.manipulation.SortableTest;
 import org.junit.tests.running.classes.EnclosedTest;
@@ -55,6 +68,7 @@ import org.junit.tests.running.classes.SuiteTest;
 import org.junit.tests.running.classes.TestClassTest;
 import org.junit.tests.running.classes.UseSuiteAsASuperclassTest;
 import org.junit.tests.running.core.CommandLineTest;
+import org.junit.tests.running.core.FailureRetentionTest;
 import org.junit.tests.running.core.JUnitCoreReturnsCorrectExitCodeTest;
 import org.junit.tests.running.core.SystemExitTest;
 import org.junit.tests.running.methods.AnnotationTest;
@@ -77,12 +91,16 @@ import org.junit.tests.validation.ValidationTest;
 	AssumptionTest.class,
 	ClassRequestTest.class,
 	ListenerTest.class,
+	AsynchronousRunListenerTest.class,
 	FailedConstructionTest.class,
 	TestDescriptionTest.class,
 	SuiteDescriptionTest.class,
 	AllTestsTest.class,
 	AnnotationTest.class,
 	AssertionTest.class,
+	DeepEqualsTest.class,
+	LargeComparisonTest.class,
+	LazyAssertTest.class,
 	CommandLineTest.class,
 	ExpectedTest.class,
 	ForwardCompatibilityTest.class,
@@ -101,10 +119,12 @@ import org.junit.tests.validation.ValidationTest;
 	SingleMethodTest.class,
 	ValidationTest.class,
 	UserStopTest.class,
+	XmlListenerTest.class,
 	SortableTest.class,
 	JUnit38ClassRunnerTest.class,
 	SystemExitTest.class,
 	JUnitCoreReturnsCorrectExitCodeTest.class,
+	FailureRetentionTest.class,
 	InaccessibleBaseClassTest.class,
 	SuiteMethodTest.class,
 	BadlyFormedClassesTest.class,
@@ -124,18 +144,26 @@ import org.junit.tests.validation.ValidationTest;
 	JUnit4ClassRunnerTest.class,
 	UseSuiteAsASuperclassTest.class,
 	FilterableTest.class,
+	ShardFilterTest.class,
 	MaxStarterTest.class,
+	MaxHistoryTest.class,
+	LongestFirstComputerTest.class,
+	TestImpactTest.class,
 	JUnit38SortingTest.class,
 	RulesTest.class,
 	TimeoutRuleTest.class,
 	ParallelClassTest.class,
 	ParallelMethodTest.class,
+	ParallelSchedulerTest.class,
+	TimeBudgetComputerTest.class,
+	ForkComputerTest.class,
 	ParentRunnerTest.class,
 	NameRulesTest.class,
 	ExpectedExceptionRuleTest.class,
 	TempFolderRuleTest.class,
 	ExternalResourceRuleTest.class,
 	VerifierRuleTest.class,
+	BoundedErrorCollectorTest.class,
 	ContainerRulesTest.class,
 	CategoryTest.class
 })
@@ -1,7 +1,11 @@
 package org.junit.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.ParentRunner;
@@ -42,4 +46,19 @@ public class ParentRunnerTest {
 		runner.run(new RunNotifier());
 		assertEquals("before apple after before banana after afterAll ", log);
 	}
+
+	@Test
+	public void descriptionIsReusedUntilFiltered() throws Exception {
+		ParentRunner<?> runner= new BlockJUnit4ClassRunner(FruitTest.class);
+		Description description= runner.getDescription();
+		assertSame(description, runner.getDescription());
+		assertEquals(2, description.testCount());
+
+		runner.filter(Filter.matchMethodDescription(Description
+				.createTestDescription(FruitTest.class, "apple")));
+		Description filtered= runner.getDescription();
+		assertNotSame(description, filtered);
+		assertEquals(1, filtered.testCount());
+		assertEquals("apple", filtered.getChildren().get(0).getMethodName());
+	}
 }
@@ -136,6 +136,41 @@ public class AssertionTest {
 		assertArrayEquals(new float[] {1.0f}, new float[] {2.5f}, 1.0f);
 	}
 
+	@Test public void primitiveArraysReportFirstDifferingElement() {
+		int[] expecteds= new int[100000];
+		int[] actuals= new int[100000];
+		actuals[70000]= 1;
+		actuals[90000]= 2;
+		try {
+			assertArrayEquals("message", expecteds, actuals);
+		} catch (ArrayComparisonFailure exception) {
+			assertEquals("message: arrays first differed at element [70000]; expected:<0> but was:<1>", exception.getMessage());
+			return;
+		}
+		fail();
+	}
+
+	@Test public void primitiveArraysOfDifferentLengthsReportLengths() {
+		try {
+			assertArrayEquals(new long[] {1, 2}, new long[] {1});
+		} catch (AssertionError exception) {
+			assertEquals("array lengths differed, expected.length=2 actual.length=1", exception.getMessage());
+			return;
+		}
+		fail();
+	}
+
+	@Test public void doubleArraysCompareElementsLikeDoubles() {
+		assertArrayEquals(new double[] {0.0, Double.NaN, 1.0}, new double[] {-0.0, Double.NaN, 1.4}, 0.5);
+		try {
+			assertArrayEquals(new float[] {1.0f, 2.0f}, new float[] {1.0f, 3.0f}, 0.5f);
+		} catch (ArrayComparisonFailure exception) {
+			assertEquals("arrays first differed at element [1]; expected:<2.0> but was:<3.0>", exception.getMessage());
+			return;
+		}
+		fail();
+	}
+
 	@Test(expected=AssertionError.class)
 	public void IntegerDoesNotEqualLong() {
 		assertEquals(new Integer(1), new Long(1));
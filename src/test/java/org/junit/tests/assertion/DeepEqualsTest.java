@@ -0,0 +1,123 @@
+package org.junit.tests.assertion;
+
+import static org.junit.Assert.assertDeepEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSameElements;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DeepEqualsTest {
+	private static String failureOf(Object expected, Object actual) {
+		try {
+			assertDeepEquals("message", expected, actual);
+		} catch (AssertionError e) {
+			return e.getMessage();
+		}
+		fail("expected a failure");
+		return null;
+	}
+
+	private static List<Integer> range(int size) {
+		List<Integer> result= new ArrayList<Integer>();
+		for (int i= 0; i < size; i++)
+			result.add(i);
+		return result;
+	}
+
+	@Test public void equalStructuresPass() {
+		Map<String, Object> expected= new HashMap<String, Object>();
+		expected.put("list", range(1000));
+		expected.put("array", new int[][] {{1, 2}, {3}});
+		expected.put("set", new HashSet<String>(Arrays.asList("a", "b")));
+		Map<String, Object> actual= new HashMap<String, Object>();
+		actual.put("list", range(1000));
+		actual.put("array", new int[][] {{1, 2}, {3}});
+		actual.put("set", new HashSet<String>(Arrays.asList("b", "a")));
+		assertDeepEquals(expected, actual);
+	}
+
+	@Test public void reportsPathOfDifferingElement() {
+		Map<String, Object> expected= new LinkedHashMap<String, Object>();
+		expected.put("rows", new int[][] {{1, 2}, {3, 4}});
+		Map<String, Object> actual= new LinkedHashMap<String, Object>();
+		actual.put("rows", new int[][] {{1, 2}, {3, 5}});
+		assertEquals("message: structures differed\n  [rows][1][1]: expected:<4> but was:<5>",
+				failureOf(expected, actual));
+	}
+
+	@Test public void reportsOnlyTheFirstDifferences() {
+		List<Integer> actual= range(100000);
+		for (int i= 0; i < actual.size(); i++)
+			actual.set(i, -i - 1);
+		String message= failureOf(range(100000), actual);
+		assertTrue(message, message.length() < 1000);
+		assertTrue(message, message.contains("[9]: expected:<9> but was:<-10>"));
+		assertTrue(message, message.endsWith("(only the first 10 differences are shown)"));
+	}
+
+	@Test public void reportsSizeAndFirstExtraElement() {
+		assertEquals("message: structures differed\n  sizes differed, expected:<3> but was:<5>\n  [3]: unexpected:<3>",
+				failureOf(range(3), range(5)));
+	}
+
+	@Test public void reportsMissingAndUnexpectedKeys() {
+		Map<String, Integer> expected= new HashMap<String, Integer>();
+		expected.put("a", 1);
+		expected.put("b", 2);
+		Map<String, Integer> actual= new HashMap<String, Integer>();
+		actual.put("a", 1);
+		actual.put("c", 3);
+		assertEquals("message: structures differed\n  [b]: missing:<2>\n  [c]: unexpected:<3>",
+				failureOf(expected, actual));
+	}
+
+	@Test public void summarizesNestedContainers() {
+		assertEquals("message: structures differed\n  [0]: expected:<ArrayList(size=100000)> but was:<null>",
+				failureOf(Collections.singletonList(range(100000)),
+						Collections.singletonList(null)));
+	}
+
+	@Test public void distinguishesValuesWithSameToString() {
+		assertEquals("message: structures differed\n  [0]: expected:<java.lang.Integer<1>> but was:<java.lang.Long<1>>",
+				failureOf(Arrays.asList(1), Arrays.asList(1L)));
+	}
+
+	@Test public void arraysAreNotEqualToLists() {
+		assertEquals("message: structures differed\n  types differed, expected:<int[]> but was:<java.util.Arrays$ArrayList>",
+				failureOf(new int[] {1, 2}, Arrays.asList(1, 2)));
+	}
+
+	@Test public void reportsFirstDifferenceInLargePrimitiveArrays() {
+		long[] expected= new long[1000000];
+		long[] actual= new long[1000000];
+		assertDeepEquals(expected, actual.clone());
+		actual[999999]= 1;
+		assertEquals("message: structures differed\n  [999999]: expected:<0> but was:<1>",
+				failureOf(expected, actual));
+	}
+
+	@Test public void sameElementsIgnoresOrder() {
+		assertSameElements(Arrays.asList(1, 2, 2, 3), Arrays.asList(2, 3, 2, 1));
+	}
+
+	@Test public void sameElementsReportsMissingAndUnexpected() {
+		try {
+			assertSameElements(Arrays.asList(1, 2, 2), Arrays.asList(2, 4, 1));
+		} catch (AssertionError e) {
+			assertEquals("structures differed\n  unexpected:<4>\n  missing:<2>", e.getMessage());
+			return;
+		}
+		fail();
+	}
+}
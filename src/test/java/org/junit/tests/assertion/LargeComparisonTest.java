@@ -0,0 +1,92 @@
+package org.junit.tests.assertion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertLinesEqual;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+public class LargeComparisonTest {
+	private static String repeat(char c, int count) {
+		StringBuilder result= new StringBuilder(count);
+		for (int i= 0; i < count; i++)
+			result.append(c);
+		return result.toString();
+	}
+
+	private static String linesFailure(CharSequence expected, CharSequence actual) {
+		try {
+			assertLinesEqual("message", expected, actual);
+		} catch (AssertionError e) {
+			return e.getMessage();
+		}
+		fail("expected a failure");
+		return null;
+	}
+
+	@Test public void capsALongDifference() {
+		String expected= "start" + repeat('a', 1000000) + "end";
+		String actual= "start" + repeat('b', 1000000) + "end";
+		String message= new ComparisonFailure("", expected, actual).getMessage();
+		assertTrue(message.length() < 1200);
+		assertTrue(message, message.startsWith("expected:<start[aaa"));
+		assertTrue(message, message.contains("a...a"));
+		assertTrue(message, message.endsWith("bbb]end>"));
+	}
+
+	@Test public void shortDifferencesAreCompactedAsBefore() {
+		assertEquals("expected:<...bcdefghijklmnopqrstu[v]wxyz> but was:<...bcdefghijklmnopqrstu[V]wxyz>",
+				new ComparisonFailure("", "abcdefghijklmnopqrstuvwxyz",
+						"abcdefghijklmnopqrstuVwxyz").getMessage());
+	}
+
+	@Test public void compactsLargeNonStringValues() {
+		List<Integer> expected= new ArrayList<Integer>();
+		List<Integer> actual= new ArrayList<Integer>();
+		for (int i= 0; i < 100000; i++) {
+			expected.add(i);
+			actual.add(i == 50000 ? -1 : i);
+		}
+		try {
+			assertEquals(expected, actual);
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().length() < 200);
+			assertTrue(e.getMessage(), e.getMessage().contains("49999, [50000]"));
+			return;
+		}
+		fail();
+	}
+
+	@Test public void equalTextsPass() {
+		assertLinesEqual("a\nb\n", new StringBuilder("a\nb\n"));
+		assertLinesEqual(null, null);
+	}
+
+	@Test public void reportsDifferingLines() {
+		assertEquals("message lines differed\n  line 2: expected:<b[c]d> but was:<b[x]d>\n  line 4: missing:<e>",
+				linesFailure("a\nbcd\n\ne", "a\nbxd\n"));
+	}
+
+	@Test public void reportsUnexpectedLines() {
+		assertEquals("message lines differed\n  line 2: unexpected:<b>",
+				linesFailure("a", "a\nb"));
+	}
+
+	@Test public void stopsAfterTheFirstDifferingLines() {
+		StringBuilder expected= new StringBuilder();
+		StringBuilder actual= new StringBuilder();
+		for (int i= 0; i < 100000; i++) {
+			expected.append("line ").append(i).append('\n');
+			actual.append("line ").append(-i).append('\n');
+		}
+		String message= linesFailure(expected, actual);
+		assertTrue(message, message.contains("line 2: expected:<line []1> but was:<line [-]1>"));
+		assertTrue(message, message.endsWith("(only the first 10 differing lines are shown)"));
+		assertTrue(message.length() < 1000);
+	}
+}
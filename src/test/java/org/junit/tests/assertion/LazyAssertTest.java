@@ -0,0 +1,106 @@
+package org.junit.tests.assertion;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Assume;
+import org.junit.LazyAssert;
+import org.junit.MessageSupplier;
+import org.junit.Test;
+import org.junit.internal.AssumptionViolatedException;
+
+public class LazyAssertTest {
+	private static class CountingSupplier implements MessageSupplier {
+		int fCalls= 0;
+
+		public String getMessage() {
+			fCalls++;
+			return "message";
+		}
+	}
+
+	@Test public void passingAssertionsDoNotBuildTheMessage() {
+		CountingSupplier message= new CountingSupplier();
+		LazyAssert.assertTrue(message, true);
+		LazyAssert.assertFalse(message, false);
+		LazyAssert.assertEquals(message, "a", "a");
+		LazyAssert.assertEquals(message, null, null);
+		LazyAssert.assertEquals(message, 1000L, 1000L);
+		LazyAssert.assertEquals(message, 1.0, 1.1, 0.2);
+		LazyAssert.assertEquals(message, Double.NaN, Double.NaN, 0.0);
+		LazyAssert.assertNotNull(message, "");
+		LazyAssert.assertNull(message, null);
+		LazyAssert.assertSame(message, this, this);
+		LazyAssert.assertNotSame(message, this, "");
+		LazyAssert.assertThat(message, 1, is(1));
+		Assume.assumeTrue(message, true);
+		Assume.assumeThat(message, 1, is(1));
+		assertEquals(0, message.fCalls);
+	}
+
+	private static String failureOf(Runnable assertion) {
+		try {
+			assertion.run();
+		} catch (AssertionError e) {
+			return e.getMessage();
+		}
+		fail("expected a failure");
+		return null;
+	}
+
+	@Test public void failuresAreReportedAsByAssert() {
+		final CountingSupplier message= new CountingSupplier();
+		assertEquals("message expected:<1000> but was:<1001>", failureOf(new Runnable() {
+			public void run() {
+				LazyAssert.assertEquals(message, 1000L, 1001L);
+			}
+		}));
+		assertEquals("message expected:<[a]> but was:<[b]>", failureOf(new Runnable() {
+			public void run() {
+				LazyAssert.assertEquals(message, "a", "b");
+			}
+		}));
+		assertEquals("message expected:<1.0> but was:<2.0>", failureOf(new Runnable() {
+			public void run() {
+				LazyAssert.assertEquals(message, 1.0, 2.0, 0.5);
+			}
+		}));
+		assertEquals("message", failureOf(new Runnable() {
+			public void run() {
+				LazyAssert.assertTrue(message, false);
+			}
+		}));
+		assertEquals(4, message.fCalls);
+	}
+
+	@Test public void failedAssumptionsCarryTheMessage() {
+		try {
+			Assume.assumeThat(new CountingSupplier(), 1, is(2));
+		} catch (AssumptionViolatedException e) {
+			assertEquals("message: got: <1>, expected: is <2>", e.getMessage());
+			return;
+		}
+		fail();
+	}
+
+	@Test public void nullSupplierStandsForNullMessage() {
+		assertEquals("expected:<1000> but was:<1001>", failureOf(new Runnable() {
+			public void run() {
+				LazyAssert.assertEquals((MessageSupplier) null, 1000L, 1001L);
+			}
+		}));
+		assertEquals("", failureOf(new Runnable() {
+			public void run() {
+				LazyAssert.assertTrue((MessageSupplier) null, false);
+			}
+		}));
+		try {
+			Assume.assumeTrue((MessageSupplier) null, false);
+		} catch (AssumptionViolatedException e) {
+			assertEquals("got: <false>, expected: is <true>", e.getMessage());
+			return;
+		}
+		fail();
+	}
+}
@@ -1,6 +1,8 @@
 package org.junit.tests.description;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 import org.junit.runner.Description;
 
@@ -8,4 +10,21 @@ public class TestDescriptionTest {
 	@Test public void equalsIsFalseForNonTestDescription() {
 		assertFalse(Description.createTestDescription(getClass(), "a").equals(new Integer(5)));
 	}
-}
\ No newline at end of file
+
+	@Test public void namesOfTestDescription() {
+		Description description= Description.createTestDescription(
+				TestDescriptionTest.class, "a(b)");
+		assertEquals("a(b)", description.getMethodName());
+		assertEquals(TestDescriptionTest.class.getName(), description.getClassName());
+		assertSame(TestDescriptionTest.class, description.getTestClass());
+	}
+
+	@Test public void namesParsedFromDisplayName() {
+		Description description= Description.createSuiteDescription(
+				"method(" + TestDescriptionTest.class.getName() + ")");
+		assertEquals("method", description.getMethodName());
+		assertEquals(TestDescriptionTest.class, description.getTestClass());
+		assertEquals(description, Description.createTestDescription(
+				TestDescriptionTest.class, "method"));
+	}
+}
@@ -0,0 +1,109 @@
+package org.junit.tests.experimental;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.experimental.fork.ForkComputer;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+public class ForkComputerTest {
+	public static class Leaky {
+		static boolean fRan= false;
+
+		@Test public void leak() {
+			fRan= true;
+		}
+
+		@Test public void failing() {
+			fail("in a fork");
+		}
+	}
+
+	public static class WithIgnored {
+		@Test public void passing() {
+		}
+
+		@Ignore @Test public void ignored() {
+		}
+	}
+
+	public static class Crashing {
+		@Test public void crash() {
+			System.exit(3);
+		}
+	}
+
+	private static class StartedListener extends RunListener {
+		Description fRoot;
+
+		final List<Description> fStarted= new ArrayList<Description>();
+
+		@Override
+		public void testRunStarted(Description description) {
+			fRoot= description;
+		}
+
+		@Override
+		public synchronized void testStarted(Description description) {
+			fStarted.add(description);
+		}
+	}
+
+	@Test(timeout=60000) public void runsClassesInOtherJvms() {
+		Result result= JUnitCore.runClasses(new ForkComputer(2), Leaky.class,
+				WithIgnored.class);
+		assertEquals(3, result.getRunCount());
+		assertEquals(1, result.getIgnoreCount());
+		assertEquals(1, result.getFailureCount());
+		Failure failure= result.getFailures().get(0);
+		assertTrue(failure.getException() instanceof AssertionError);
+		assertEquals("in a fork", failure.getMessage());
+		assertFalse(Leaky.fRan);
+	}
+
+	@Test(timeout=60000) public void reportsTheDescriptionsOfThisJvm() {
+		JUnitCore core= new JUnitCore();
+		StartedListener listener= new StartedListener();
+		core.addListener(listener);
+		core.run(new ForkComputer(2), Leaky.class, WithIgnored.class);
+		assertEquals(3, listener.fStarted.size());
+		List<Description> tests= new ArrayList<Description>();
+		for (Description each : listener.fRoot.getChildren())
+			tests.addAll(each.getChildren());
+		for (Description each : listener.fStarted)
+			assertSame(tests.get(tests.indexOf(each)), each);
+	}
+
+	@Test(timeout=60000) public void honorsFilters() {
+		Request request= Request.classes(new ForkComputer(1), Leaky.class,
+				WithIgnored.class).filterWith(
+				Description.createTestDescription(Leaky.class, "failing"));
+		Result result= new JUnitCore().run(request);
+		assertEquals(1, result.getRunCount());
+		assertEquals(1, result.getFailureCount());
+	}
+
+	@Test(timeout=60000) public void failsTheTestThatBringsItsJvmDown() {
+		Result result= JUnitCore.runClasses(new ForkComputer(1),
+				Crashing.class);
+		assertEquals(1, result.getRunCount());
+		assertEquals(1, result.getFailureCount());
+		Failure failure= result.getFailures().get(0);
+		assertEquals("crash", failure.getDescription().getMethodName());
+		assertTrue(failure.getMessage(), failure.getMessage().contains(
+				"(exit code 3)"));
+	}
+}
@@ -0,0 +1,132 @@
+package org.junit.tests.experimental;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.experimental.TimeBudgetComputer;
+import org.junit.runner.Computer;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.AsynchronousRunListener;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+public class TimeBudgetComputerTest {
+	public static class Slow {
+		@Test public void first() throws InterruptedException {
+			Thread.sleep(10000);
+		}
+
+		@Test public void second() throws InterruptedException {
+			Thread.sleep(10000);
+		}
+
+		@Test public void third() throws InterruptedException {
+			Thread.sleep(10000);
+		}
+	}
+
+	public static class Fast {
+		@Test public void one() {
+		}
+
+		@Test public void two() {
+		}
+	}
+
+	@Test(timeout=5000) public void classBudgetInterruptsRunningAndSkipsRest() {
+		Result result= JUnitCore.runClasses(new TimeBudgetComputer(
+				Computer.serial(), TimeBudgetComputer.UNLIMITED, 50),
+				Slow.class, Fast.class);
+		assertEquals(1, result.getFailureCount());
+		assertEquals(2, result.getIgnoreCount());
+		assertEquals(3, result.getRunCount());
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test(timeout=5000) public void runBudgetSkipsLaterClasses() {
+		Result result= JUnitCore.runClasses(new TimeBudgetComputer(
+				Computer.serial(), 50, TimeBudgetComputer.UNLIMITED),
+				Slow.class, Fast.class);
+		assertEquals(1, result.getFailureCount());
+		assertEquals(4, result.getIgnoreCount());
+	}
+
+	@Test(timeout=5000) public void cancelsQueuedParallelChildren() {
+		Result result= JUnitCore.runClasses(new TimeBudgetComputer(
+				new ParallelComputer(false, true, 1), 50,
+				TimeBudgetComputer.UNLIMITED), Slow.class);
+		// the worker and the waiting runner each start one child
+		assertEquals(3, result.getFailureCount() + result.getIgnoreCount());
+		assertTrue(result.getIgnoreCount() >= 1);
+	}
+
+	@Test public void generousBudgetRunsEverything() {
+		Result result= JUnitCore.runClasses(new TimeBudgetComputer(
+				Computer.serial(), 60000, 60000), Fast.class);
+		assertTrue(result.wasSuccessful());
+		assertEquals(2, result.getRunCount());
+		assertEquals(0, result.getIgnoreCount());
+	}
+
+	public static class Busy {
+		@Test public void ignoresInterrupts() {
+			long end= System.currentTimeMillis() + 300;
+			while (System.currentTimeMillis() < end)
+				Thread.currentThread().isInterrupted();
+			// fails once the budget has interrupted it
+			assertFalse(Thread.currentThread().isInterrupted());
+		}
+	}
+
+	private static class RecordingListener extends RunListener {
+		final StringBuffer fLog= new StringBuffer();
+
+		private void record(String event) {
+			fLog.append(event);
+			if (Thread.currentThread().isInterrupted())
+				fLog.append("(interrupted)");
+			fLog.append(' ');
+		}
+
+		@Override
+		public void testStarted(Description description) {
+			record("start");
+		}
+
+		@Override
+		public void testFailure(Failure failure) {
+			record("fail");
+		}
+
+		@Override
+		public void testFinished(Description description) {
+			record("finish");
+		}
+
+		@Override
+		public void testRunFinished(Result result) {
+			record("done");
+		}
+	}
+
+	@Test(timeout=5000) public void listenersAreNotNotifiedFromInterruptedThreads() {
+		RecordingListener recording= new RecordingListener();
+		RecordingListener asynchronous= new RecordingListener();
+		JUnitCore core= new JUnitCore();
+		core.addListener(recording);
+		core.addListener(new AsynchronousRunListener(asynchronous));
+		Result result= core.run(new TimeBudgetComputer(Computer.serial(),
+				TimeBudgetComputer.UNLIMITED, 100), Busy.class);
+		assertEquals(1, result.getFailureCount());
+		assertEquals("ignoresInterrupts", result.getFailures().get(0)
+				.getDescription().getMethodName());
+		assertEquals("start fail finish done ", recording.fLog.toString());
+		assertEquals("start fail finish done ", asynchronous.fLog.toString());
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+}
@@ -0,0 +1,46 @@
+package org.junit.tests.experimental.max;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/*
+ * The classes whose dependencies TestImpactTest records. They are not nested
+ * in TestImpactTest itself, which refers to all of them: a nested class
+ * depends on its enclosing class, and so on everything that class uses.
+ */
+public class ImpactFixtures {
+	public static class Helper {
+		static int twice(int value) {
+			return 2 * value;
+		}
+	}
+
+	public static class UsesHelper {
+		@Test public void twice() {
+			assertEquals(4, Helper.twice(2));
+		}
+	}
+
+	public static class UsesNothing {
+		@Test public void nothing() {
+		}
+	}
+
+	public static class NeverRecorded {
+		@Test public void nothing() {
+		}
+	}
+
+	public static class Enclosing {
+		static int four() {
+			return Helper.twice(2);
+		}
+
+		public static class UsesEnclosing {
+			@Test public void four() {
+				assertEquals(4, Enclosing.four());
+			}
+		}
+	}
+}
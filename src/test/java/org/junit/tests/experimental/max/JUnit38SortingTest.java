@@ -6,6 +6,7 @@ import java.io.File;
 import java.util.List;
 
 import junit.framework.TestCase;
+import junit.framework.TestSuite;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -50,4 +51,27 @@ public class JUnit38SortingTest {
 		assertEquals(dontSucceed, tests.get(0));
 	}
 
+	public static class FailsOnDemand extends TestCase {
+		static String failing;
+
+		private void check() {
+			if (getName().equals(failing))
+				fail();
+		}
+
+		public void testA() { check(); }
+		public void testB() { check(); }
+		public void testC() { check(); }
+	}
+
+	@Test
+	public void preferRecentlyFailed38TestWhateverItsPosition() {
+		TestSuite suite= new TestSuite(FailsOnDemand.class);
+		FailsOnDemand.failing= ((TestCase) suite.testAt(suite.testCount() - 1)).getName();
+		Request request= Request.aClass(FailsOnDemand.class);
+		fMax.run(request);
+		List<Description> tests= fMax.sortedLeavesForTest(request);
+		assertEquals(Description.createTestDescription(FailsOnDemand.class,
+				FailsOnDemand.failing), tests.get(0));
+	}
 }
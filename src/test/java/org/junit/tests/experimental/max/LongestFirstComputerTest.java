@@ -0,0 +1,145 @@
+package org.junit.tests.experimental.max;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.max.LongestFirstComputer;
+import org.junit.experimental.max.MaxHistory;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+public class LongestFirstComputerTest {
+	public static class OneTest {
+		@Test public void a() {}
+	}
+
+	public static class ThreeTests {
+		@Test public void a() {}
+		@Test public void b() {}
+		@Test public void c() {}
+	}
+
+	private File fStore;
+
+	private MaxHistory fHistory;
+
+	@Before
+	public void createHistory() throws Exception {
+		fStore= File.createTempFile("max", ".history");
+		fStore.delete();
+		fHistory= MaxHistory.forFolder(fStore);
+		RunListener listener= fHistory.listener();
+		record(listener, Description.createTestDescription(OneTest.class, "a"), 5);
+		record(listener, Description.createTestDescription(ThreeTests.class, "a"), 1);
+		record(listener, Description.createTestDescription(ThreeTests.class, "b"), 20);
+		record(listener, Description.createTestDescription(ThreeTests.class, "c"), 10);
+	}
+
+	@After
+	public void deleteHistory() {
+		fStore.delete();
+	}
+
+	private static void record(RunListener listener, Description test,
+			long millis) throws Exception {
+		listener.testStarted(test);
+		Thread.sleep(millis);
+		listener.testFinished(test);
+	}
+
+	@Test public void ordersClassesAndMethodsLongestFirst() {
+		LongestFirstComputer computer= new LongestFirstComputer(fHistory, true, true, 2);
+		Description suite= Request.classes(computer, OneTest.class, ThreeTests.class)
+				.getRunner().getDescription();
+		List<Description> classes= suite.getChildren();
+		assertEquals(ThreeTests.class.getName(), classes.get(0).getDisplayName());
+		List<Description> methods= classes.get(0).getChildren();
+		assertEquals("b", methods.get(0).getMethodName());
+		assertEquals("c", methods.get(1).getMethodName());
+		assertEquals("a", methods.get(2).getMethodName());
+	}
+
+	@Test public void predictsMakespanOfGreedySchedule() {
+		LongestFirstComputer computer= new LongestFirstComputer(fHistory, true, false, 2);
+		Request.classes(computer, OneTest.class, ThreeTests.class).getRunner();
+		long threeTests= 0;
+		for (String each : new String[] { "a", "b", "c" })
+			threeTests+= fHistory.getDurationStatistics(Description
+					.createTestDescription(ThreeTests.class, each)).getMedian();
+		assertEquals(threeTests, computer.getPredictedMakespan());
+	}
+
+	private long median(Class<?> type, String method) {
+		return fHistory.getDurationStatistics(Description.createTestDescription(
+				type, method)).getMedian();
+	}
+
+	@Test public void predictsThatTheWaitingRunnerTakesTheShortestTests() {
+		LongestFirstComputer computer= new LongestFirstComputer(fHistory, false, true, 1);
+		Request.classes(computer, OneTest.class, ThreeTests.class).getRunner();
+		// the worker runs b while the waiting runner runs a, then c; each
+		// class finishes before the next one starts
+		long threeTests= Math.max(median(ThreeTests.class, "b"),
+				median(ThreeTests.class, "a") + median(ThreeTests.class, "c"));
+		assertEquals(threeTests + median(OneTest.class, "a"),
+				computer.getPredictedMakespan());
+	}
+
+	public static class RecordsStarts {
+		static final List<String> starts= new ArrayList<String>();
+
+		private static void run(String name, long millis) throws InterruptedException {
+			synchronized (starts) {
+				starts.add(name);
+			}
+			Thread.sleep(millis);
+		}
+
+		@Test public void a() throws InterruptedException { run("a", 50); }
+		@Test public void b() throws InterruptedException { run("b", 200); }
+		@Test public void c() throws InterruptedException { run("c", 100); }
+	}
+
+	@Test public void dispatchesAsPredicted() throws Exception {
+		RunListener listener= fHistory.listener();
+		record(listener, Description.createTestDescription(RecordsStarts.class, "a"), 50);
+		record(listener, Description.createTestDescription(RecordsStarts.class, "b"), 200);
+		record(listener, Description.createTestDescription(RecordsStarts.class, "c"), 100);
+		LongestFirstComputer computer= new LongestFirstComputer(fHistory, false, true, 1);
+		RecordsStarts.starts.clear();
+		Result result= new JUnitCore().run(computer, RecordsStarts.class);
+		assertTrue(result.wasSuccessful());
+		// the worker takes b, the longest, from the front of the queue; the
+		// waiting runner takes a, the shortest, and then c
+		assertEquals(3, RecordsStarts.starts.size());
+		assertEquals("c", RecordsStarts.starts.get(2));
+		assertEquals(Math.max(median(RecordsStarts.class, "b"),
+				median(RecordsStarts.class, "a") + median(RecordsStarts.class, "c")),
+				computer.getPredictedMakespan());
+	}
+
+	@Test public void reportsMakespan() throws IOException {
+		LongestFirstComputer computer= new LongestFirstComputer(fHistory, true, true, 2);
+		ByteArrayOutputStream out= new ByteArrayOutputStream();
+		JUnitCore core= new JUnitCore();
+		core.addListener(computer.makespanListener(new PrintStream(out)));
+		Result result= core.run(computer, OneTest.class, ThreeTests.class);
+		assertTrue(result.wasSuccessful());
+		assertThat(out.toString(), containsString("Predicted makespan: "));
+	}
+}
@@ -0,0 +1,136 @@
+package org.junit.tests.experimental.max;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.max.DurationStatistics;
+import org.junit.experimental.max.MaxHistory;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+public class MaxHistoryTest {
+	private File fStore;
+
+	@Before
+	public void createStore() throws IOException {
+		fStore= File.createTempFile("max", ".history");
+		fStore.delete();
+	}
+
+	@After
+	public void deleteStore() {
+		fStore.delete();
+		new File(fStore.getPath() + ".corrupt").delete();
+	}
+
+	private static final Description FAST= Description.createTestDescription(
+			MaxHistoryTest.class, "fast");
+
+	private static final Description SLOW= Description.createTestDescription(
+			MaxHistoryTest.class, "slow");
+
+	private static void run(RunListener listener, Description test,
+			long millis) throws Exception {
+		listener.testStarted(test);
+		Thread.sleep(millis);
+		listener.testFinished(test);
+	}
+
+	private List<Description> sorted(MaxHistory history) {
+		List<Description> tests= Arrays.asList(SLOW, FAST);
+		Collections.sort(tests, history.testComparator());
+		return tests;
+	}
+
+	@Test public void durationsAreKeptWithoutFinishingTheRun() throws Exception {
+		RunListener listener= MaxHistory.forFolder(fStore).listener();
+		run(listener, SLOW, 20);
+		run(listener, FAST, 0);
+		// no testRunFinished: as if the JVM had crashed
+		assertEquals(Arrays.asList(FAST, SLOW), sorted(MaxHistory.forFolder(fStore)));
+	}
+
+	@Test public void tornRecordIsDropped() throws Exception {
+		RunListener listener= MaxHistory.forFolder(fStore).listener();
+		run(listener, SLOW, 20);
+		run(listener, FAST, 0);
+		listener.testRunFinished(new Result());
+		long length= fStore.length();
+		FileOutputStream out= new FileOutputStream(fStore, true);
+		out.write(new byte[] { 'D', 0, 0 });
+		out.close();
+		assertEquals(Arrays.asList(FAST, SLOW), sorted(MaxHistory.forFolder(fStore)));
+		assertEquals(length, fStore.length());
+	}
+
+	@Test public void unreadableFileIsMovedAside() throws Exception {
+		FileOutputStream out= new FileOutputStream(fStore);
+		out.write("not a history".getBytes());
+		out.close();
+		MaxHistory history= MaxHistory.forFolder(fStore);
+		sorted(history);
+		assertTrue(new File(fStore.getPath() + ".corrupt").exists());
+	}
+
+	private long recordManyRuns(RunListener listener) throws Exception {
+		for (int i= 0; i < 10000; i++) {
+			listener.testStarted(FAST);
+			listener.testFinished(FAST);
+		}
+		run(listener, SLOW, 20);
+		return fStore.length();
+	}
+
+	private void assertCompacted(long length) {
+		assertTrue(fStore.length() < length);
+		MaxHistory reloaded= MaxHistory.forFolder(fStore);
+		assertEquals(Arrays.asList(FAST, SLOW), sorted(reloaded));
+		assertEquals(10000, reloaded.getDurationStatistics(FAST).getCount());
+	}
+
+	@Test public void logIsCompactedWhenTheRunFinishes() throws Exception {
+		RunListener listener= MaxHistory.forFolder(fStore).listener();
+		long length= recordManyRuns(listener);
+		listener.testRunFinished(new Result());
+		assertCompacted(length);
+	}
+
+	@Test public void oversizedLogIsCompactedWhenRead() throws Exception {
+		long length= recordManyRuns(MaxHistory.forFolder(fStore).listener());
+		MaxHistory.forFolder(fStore).getDurationStatistics(FAST);
+		assertCompacted(length);
+	}
+
+	@Test public void singleSlowRunDoesNotChangeOrder() throws Exception {
+		RunListener listener= MaxHistory.forFolder(fStore).listener();
+		for (int i= 0; i < 3; i++) {
+			run(listener, FAST, 0);
+			run(listener, SLOW, 10);
+		}
+		run(listener, FAST, 50);
+		assertEquals(Arrays.asList(FAST, SLOW), sorted(MaxHistory.forFolder(fStore)));
+	}
+
+	@Test public void statisticsSummarizeRecentDurations() {
+		DurationStatistics statistics= DurationStatistics.of(100);
+		for (int i= 0; i < 18; i++)
+			statistics= statistics.plus(100);
+		statistics= statistics.plus(1000);
+		assertEquals(20, statistics.getCount());
+		assertEquals(100, statistics.getMedian());
+		assertEquals(1000, statistics.getPercentile95());
+		assertEquals(325.0, statistics.getMean(), 0.001);
+		assertTrue(statistics.getStandardDeviation() > 0);
+	}
+}
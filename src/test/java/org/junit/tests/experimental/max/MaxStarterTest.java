@@ -14,6 +14,7 @@ import java.util.List;
 import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.max.MaxCore;
 import org.junit.internal.runners.JUnit38ClassRunner;
@@ -155,6 +156,35 @@ public class MaxStarterTest {
 				"slow"), thing);
 	}
 
+	public static class CountsClassSetUps {
+		static int setUps= 0;
+
+		@BeforeClass
+		public static void setUp() {
+			setUps++;
+		}
+
+		@Test
+		public void one() {
+		}
+
+		@Test
+		public void two() {
+		}
+
+		@Test
+		public void three() {
+		}
+	}
+
+	@Test
+	public void consecutiveTestsOfAClassShareARunner() {
+		CountsClassSetUps.setUps= 0;
+		Result result= fMax.run(CountsClassSetUps.class);
+		assertEquals(3, result.getRunCount());
+		assertEquals(1, CountsClassSetUps.setUps);
+	}
+
 	@Test
 	public void listenersAreCalledCorrectlyInTheFaceOfFailures()
 			throws Exception {
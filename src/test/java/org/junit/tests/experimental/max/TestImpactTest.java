@@ -0,0 +1,83 @@
+package org.junit.tests.experimental.max;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.max.TestImpact;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+import org.junit.tests.experimental.max.ImpactFixtures.Enclosing;
+import org.junit.tests.experimental.max.ImpactFixtures.Helper;
+import org.junit.tests.experimental.max.ImpactFixtures.NeverRecorded;
+import org.junit.tests.experimental.max.ImpactFixtures.UsesHelper;
+import org.junit.tests.experimental.max.ImpactFixtures.UsesNothing;
+
+public class TestImpactTest {
+	private File fStore;
+
+	@Before
+	public void createStore() throws IOException {
+		fStore= File.createTempFile("impact", ".txt");
+		fStore.delete();
+	}
+
+	@After
+	public void deleteStore() {
+		fStore.delete();
+	}
+
+	private void record() {
+		JUnitCore core= new JUnitCore();
+		core.addListener(TestImpact.forFile(fStore).listener());
+		core.run(UsesHelper.class, UsesNothing.class, Enclosing.UsesEnclosing.class);
+	}
+
+	@Test public void recordsDependenciesOfTestClasses() {
+		record();
+		TestImpact impact= TestImpact.forFile(fStore);
+		assertTrue(impact.getDependencies(UsesHelper.class.getName())
+				.contains(Helper.class.getName()));
+		assertFalse(impact.getDependencies(UsesNothing.class.getName())
+				.contains(Helper.class.getName()));
+	}
+
+	@Test public void runsOnlyAffectedAndUnknownTests() {
+		record();
+		Filter affected= TestImpact.forFile(fStore).affectedBy(
+				Arrays.asList(Helper.class.getName()), null, 0);
+		Result result= new JUnitCore().run(Request.classes(UsesHelper.class,
+				UsesNothing.class, NeverRecorded.class).filterWith(affected));
+		assertEquals(2, result.getRunCount());
+	}
+
+	@Test public void changeToTestClassSelectsIt() {
+		record();
+		Filter affected= TestImpact.forFile(fStore).affectedBy(
+				Collections.singleton(UsesNothing.class.getName()), null, 0);
+		Result result= new JUnitCore().run(Request.classes(UsesHelper.class,
+				UsesNothing.class).filterWith(affected));
+		assertEquals(1, result.getRunCount());
+	}
+
+	@Test public void changeToEnclosingClassSelectsNestedTests() {
+		record();
+		for (Class<?> each : Arrays.asList(Enclosing.class, Helper.class)) {
+			Filter affected= TestImpact.forFile(fStore).affectedBy(
+					Collections.singleton(each.getName()), null, 0);
+			Result result= new JUnitCore().run(Request.classes(UsesNothing.class,
+					Enclosing.UsesEnclosing.class).filterWith(affected));
+			assertEquals(each.getName(), 1, result.getRunCount());
+		}
+	}
+}
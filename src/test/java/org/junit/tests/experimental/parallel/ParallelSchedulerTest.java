@@ -0,0 +1,91 @@
+package org.junit.tests.experimental.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.experimental.ParallelScheduler;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runners.model.RunnerScheduler;
+
+public class ParallelSchedulerTest {
+	private static final Set<String> threads= Collections
+			.synchronizedSet(new HashSet<String>());
+
+	@Before
+	public void clearThreads() {
+		threads.clear();
+	}
+
+	public static class Example1 {
+		@Test public void one() throws InterruptedException {
+			record();
+		}
+		@Test public void two() throws InterruptedException {
+			record();
+		}
+		@Test public void three() throws InterruptedException {
+			record();
+		}
+	}
+
+	public static class Example2 extends Example1 {
+	}
+
+	public static class Example3 extends Example1 {
+	}
+
+	private static void record() throws InterruptedException {
+		threads.add(Thread.currentThread().getName());
+		Thread.sleep(50);
+	}
+
+	@Test(timeout=5000) public void nestedLevelsShareABoundedPool() {
+		Result result= JUnitCore.runClasses(new ParallelComputer(true, true, 2),
+				Example1.class, Example2.class, Example3.class);
+		assertTrue(result.wasSuccessful());
+		assertEquals(9, result.getRunCount());
+		threads.remove(Thread.currentThread().getName());
+		assertTrue(threads.toString(), threads.size() <= 2);
+	}
+
+	@Test(timeout=5000) public void singleWorkerDoesNotDeadlock() {
+		Result result= JUnitCore.runClasses(new ParallelComputer(true, true, 1),
+				Example1.class, Example2.class, Example3.class);
+		assertTrue(result.wasSuccessful());
+		assertEquals(9, result.getRunCount());
+	}
+
+	@Test public void finishedRunsQueuedChildren() {
+		final int[] count= new int[1];
+		RunnerScheduler scheduler= new ParallelScheduler(1).newScheduler();
+		for (int i= 0; i < 10; i++)
+			scheduler.schedule(new Runnable() {
+				public void run() {
+					synchronized (count) {
+						count[0]++;
+					}
+				}
+			});
+		scheduler.finished();
+		assertEquals(10, count[0]);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void finishedRethrowsChildFailure() {
+		RunnerScheduler scheduler= new ParallelScheduler(1).newScheduler();
+		scheduler.schedule(new Runnable() {
+			public void run() {
+				throw new IllegalStateException();
+			}
+		});
+		scheduler.finished();
+	}
+}
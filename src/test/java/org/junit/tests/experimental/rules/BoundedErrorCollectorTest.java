@@ -0,0 +1,143 @@
+package org.junit.tests.experimental.rules;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.experimental.results.PrintableResult.testResult;
+import static org.junit.experimental.results.ResultMatchers.hasFailureContaining;
+import static org.junit.experimental.results.ResultMatchers.isSuccessful;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.results.PrintableResult;
+import org.junit.rules.BoundedErrorCollector;
+
+public class BoundedErrorCollectorTest {
+	public static class GroupsRepeatedFailures {
+		@Rule
+		public BoundedErrorCollector collector= new BoundedErrorCollector();
+
+		@Test public void example() throws InterruptedException {
+			List<Thread> threads= new ArrayList<Thread>();
+			for (int i= 0; i < 4; i++)
+				threads.add(new Thread() {
+					@Override
+					public void run() {
+						for (int j= 0; j < 1000; j++)
+							collector.checkThat(j % 2, is(2));
+					}
+				});
+			for (Thread each : threads)
+				each.start();
+			for (Thread each : threads)
+				each.join();
+			assertEquals(4000, collector.getErrorCount());
+		}
+	}
+
+	@Test public void repeatedFailuresAreReportedOnceWithTheirCount() {
+		PrintableResult result= testResult(GroupsRepeatedFailures.class);
+		assertEquals(2, result.failureCount());
+		assertThat(result, hasFailureContaining("got: <0>\n (occurred 2000 times)"));
+		assertThat(result, hasFailureContaining("got: <1>\n (occurred 2000 times)"));
+	}
+
+	public static class RepeatedExceptions {
+		static Throwable fFailure;
+
+		@Rule
+		public BoundedErrorCollector collector= new BoundedErrorCollector() {
+			@Override
+			protected void verify() throws Throwable {
+				try {
+					super.verify();
+				} catch (Throwable e) {
+					fFailure= e;
+				}
+			}
+		};
+
+		@Test public void example() {
+			for (int i= 0; i < 3; i++)
+				collector.checkSucceeds(new Callable<Object>() {
+					public Object call() throws Exception {
+						throw new IOException("disk full");
+					}
+				});
+		}
+	}
+
+	@Test public void groupedExceptionsKeepTheFirstAsCause() {
+		testResult(RepeatedExceptions.class);
+		Throwable failure= RepeatedExceptions.fFailure;
+		assertEquals("disk full (occurred 3 times)", failure.getMessage());
+		assertEquals(IOException.class, failure.getCause().getClass());
+	}
+
+	public static class ExceedsItsCapacity {
+		@Rule
+		public BoundedErrorCollector collector= new BoundedErrorCollector(3, false);
+
+		@Test public void example() {
+			for (int i= 0; i < 10; i++)
+				collector.addError(new Throwable("failure " + i));
+		}
+	}
+
+	@Test public void failuresBeyondTheCapacityAreCounted() {
+		PrintableResult result= testResult(ExceedsItsCapacity.class);
+		assertEquals(4, result.failureCount());
+		assertThat(result, hasFailureContaining("failure 2"));
+		assertThat(result, hasFailureContaining("7 more failures of 10 were not kept"));
+	}
+
+	public static class LightweightFailures {
+		static Throwable fFailure;
+
+		@Rule
+		public BoundedErrorCollector collector= new BoundedErrorCollector(10, false) {
+			@Override
+			protected void verify() throws Throwable {
+				try {
+					super.verify();
+				} catch (Throwable e) {
+					fFailure= e;
+				}
+			}
+		};
+
+		@Test public void example() {
+			collector.checkThat("reason", 3, is(4));
+		}
+	}
+
+	@Test public void lightweightFailuresHaveNoStackTrace() {
+		testResult(LightweightFailures.class);
+		assertEquals(0, LightweightFailures.fFailure.getStackTrace().length);
+		assertEquals("reason\nExpected: is <4>\n     got: <3>\n",
+				LightweightFailures.fFailure.getMessage());
+	}
+
+	public static class PassingChecks {
+		@Rule
+		public BoundedErrorCollector collector= new BoundedErrorCollector();
+
+		@Test public void example() {
+			collector.checkThat(3, is(3));
+			assertEquals("value", collector.checkSucceeds(new Callable<Object>() {
+				public Object call() throws Exception {
+					return "value";
+				}
+			}));
+		}
+	}
+
+	@Test public void passingChecksSucceed() {
+		assertThat(testResult(PassingChecks.class), isSuccessful());
+	}
+}
@@ -1,13 +1,16 @@
 package org.junit.tests.experimental.rules;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Propagate;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
 import org.junit.rules.MethodRule;
 import org.junit.rules.SuiteRule;
 import org.junit.rules.SuiteWatchman;
@@ -15,6 +18,7 @@ import org.junit.rules.TestCaseRule;
 import org.junit.rules.TestCaseWatchman;
 import org.junit.rules.TestWatchman;
 import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
@@ -109,6 +113,21 @@ public class ContainerRulesTest {
 				"after test case" + TestCaseRuleTestCase.class);
 	}
 
+	/**
+	 * Propagated rules should be found for every test case, even when
+	 * the test cases of a suite run concurrently.
+	 * @throws Exception
+	 */
+	@Test(timeout=10000)
+	public void methodRuleCanPropagateToTestCasesRunInParallel() throws Exception {
+		propagatedRuleCount.set(0);
+		Result result= JUnitCore.runClasses(new ParallelComputer(true, true, 4),
+				ParallelPropagatingSuite.class);
+
+		assertTrue(result.wasSuccessful());
+		assertEquals(20, result.getRunCount());
+		assertEquals(20, propagatedRuleCount.get());
+	}
 
 	private void matchEventsToLog(String... expecteds) {
 		String actual = "";
@@ -212,6 +231,35 @@ public class ContainerRulesTest {
 	public static class LeafSuite {
 	}
 
+	private static AtomicInteger propagatedRuleCount= new AtomicInteger();
+
+	public static class ParallelTestCase {
+		@Test public void one() throws Exception { Thread.sleep(5); }
+		@Test public void two() throws Exception { Thread.sleep(5); }
+		@Test public void three() throws Exception { Thread.sleep(5); }
+		@Test public void four() throws Exception { Thread.sleep(5); }
+	}
+
+	public static class ParallelTestCase2 extends ParallelTestCase {}
+	public static class ParallelTestCase3 extends ParallelTestCase {}
+	public static class ParallelTestCase4 extends ParallelTestCase {}
+	public static class ParallelTestCase5 extends ParallelTestCase {}
+
+	@RunWith(Suite.class)
+	@SuiteClasses( { ParallelTestCase.class, ParallelTestCase2.class,
+			ParallelTestCase3.class, ParallelTestCase4.class,
+			ParallelTestCase5.class })
+	public static class ParallelPropagatingSuite {
+		@Rule
+		@Propagate
+		public static MethodRule countingRule= new TestWatchman() {
+			@Override
+			public void starting(FrameworkMethod method) {
+				propagatedRuleCount.incrementAndGet();
+			}
+		};
+	}
+
 	@RunWith(Suite.class)
 	@SuiteClasses( { SimpleTestCase.class })
 	public static class PropagatingMethodRuleSuite {
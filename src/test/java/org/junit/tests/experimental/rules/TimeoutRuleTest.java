@@ -1,7 +1,9 @@
 package org.junit.tests.experimental.rules;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.matchers.JUnitMatchers.containsString;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -36,4 +38,44 @@ public class TimeoutRuleTest {
 		assertThat(HasGlobalTimeout.log, containsString("ran1"));
 		assertThat(HasGlobalTimeout.log, containsString("ran2"));
 	}
+
+	public static class SeesThreadLocal {
+		static final ThreadLocal<String> context= new ThreadLocal<String>();
+
+		static String seen;
+
+		@Rule public MethodRule timeout= Timeout.onCallingThread(1000);
+
+		@Test public void readsContext() {
+			seen= context.get();
+		}
+	}
+
+	@Test public void callingThreadTimeoutKeepsThreadLocals() {
+		SeesThreadLocal.context.set("set by runner");
+		try {
+			Result result= JUnitCore.runClasses(SeesThreadLocal.class);
+			assertTrue(result.wasSuccessful());
+			assertEquals("set by runner", SeesThreadLocal.seen);
+		} finally {
+			SeesThreadLocal.context.remove();
+		}
+	}
+
+	public static class SleepsTooLong {
+		@Rule public MethodRule timeout= Timeout.onCallingThread(20);
+
+		@Test public void sleeps() throws InterruptedException {
+			Thread.sleep(10000);
+		}
+	}
+
+	@Test(timeout=5000) public void watchdogInterruptsTestOnCallingThread() {
+		Result result= JUnitCore.runClasses(SleepsTooLong.class);
+		assertEquals(1, result.getFailureCount());
+		Throwable exception= result.getFailures().get(0).getException();
+		assertThat(exception.getMessage(), containsString("test timed out after 20 milliseconds"));
+		assertThat(result.getFailures().get(0).getTrace(), containsString("sleep"));
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
 }
@@ -0,0 +1,107 @@
+package org.junit.tests.listening;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.AsynchronousRunListener;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+public class AsynchronousRunListenerTest {
+	public static class ThreeFailingTests {
+		@Test public void a() { fail(); }
+		@Test public void b() { fail(); }
+		@Test public void c() { fail(); }
+	}
+
+	private static class SlowLogListener extends RunListener {
+		private final StringBuffer fLog= new StringBuffer();
+
+		@Override
+		public void testRunStarted(Description description) throws Exception {
+			fLog.append("run ");
+		}
+
+		@Override
+		public void testStarted(Description description) throws Exception {
+			Thread.sleep(20);
+			fLog.append("start ");
+		}
+
+		@Override
+		public void testFailure(Failure failure) throws Exception {
+			fLog.append("fail ");
+		}
+
+		@Override
+		public void testFinished(Description description) throws Exception {
+			fLog.append("finish ");
+		}
+
+		@Override
+		public void testRunFinished(Result result) throws Exception {
+			Thread.sleep(20);
+			fLog.append("done");
+		}
+	}
+
+	public static class OneFailingTest {
+		@Test public void b() { fail(); }
+	}
+
+	@Test public void deliversEventsInOrderBeforeRunReturns() {
+		SlowLogListener slow= new SlowLogListener();
+		JUnitCore core= new JUnitCore();
+		core.addListener(new AsynchronousRunListener(slow));
+		core.run(OneFailingTest.class);
+		assertEquals("run start fail finish done", slow.fLog.toString());
+	}
+
+	@Test public void deliversAllEventsWhenQueueFillsUp() {
+		SlowLogListener slow= new SlowLogListener();
+		JUnitCore core= new JUnitCore();
+		core.addListener(new AsynchronousRunListener(slow, 1, 1));
+		core.run(ThreeFailingTests.class);
+		assertEquals("run start fail finish start fail finish start fail finish done",
+				slow.fLog.toString());
+	}
+
+	public static class InterruptsItself {
+		@Test public void a() {
+			Thread.currentThread().interrupt();
+			fail();
+		}
+	}
+
+	@Test public void interruptedThreadStillDeliversEveryEvent() {
+		SlowLogListener slow= new SlowLogListener();
+		JUnitCore core= new JUnitCore();
+		core.addListener(new AsynchronousRunListener(slow, 1, 1));
+		Result result= core.run(InterruptsItself.class);
+		assertTrue(Thread.interrupted());
+		assertEquals("run start fail finish done", slow.fLog.toString());
+		assertEquals(1, result.getFailureCount());
+	}
+
+	@Test public void failingListenerIsReportedAndRemoved() {
+		JUnitCore core= new JUnitCore();
+		core.addListener(new AsynchronousRunListener(new RunListener() {
+			@Override
+			public void testStarted(Description description) throws Exception {
+				throw new Exception();
+			}
+		}));
+		Result result= core.run(OneFailingTest.class);
+		assertEquals(2, result.getFailureCount());
+		int mechanismFailures= 0;
+		for (Failure each : result.getFailures())
+			if (each.getDescription().equals(Description.TEST_MECHANISM))
+				mechanismFailures++;
+		assertEquals(1, mechanismFailures);
+	}
+}
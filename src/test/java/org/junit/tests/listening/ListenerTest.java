@@ -1,10 +1,16 @@
 package org.junit.tests.listening;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 import org.junit.runner.Description;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
 
 public class ListenerTest {
 	static private String log;
@@ -30,4 +36,48 @@ public class ListenerTest {
 		core.run(OneTest.class);
 		assertEquals("first second ", log);
 	}
+
+	@Test(timeout=5000) public void slowListenerDoesNotBlockOtherThreads() throws Exception {
+		final CountDownLatch otherThreadNotified= new CountDownLatch(1);
+		final RunNotifier notifier= new RunNotifier();
+		notifier.addListener(new RunListener() {
+			@Override
+			public void testStarted(Description description) throws Exception {
+				if (description.getDisplayName().equals("slow"))
+					assertTrue(otherThreadNotified.await(2, TimeUnit.SECONDS));
+				else
+					otherThreadNotified.countDown();
+			}
+		});
+		Thread slow= new Thread() {
+			@Override
+			public void run() {
+				notifier.fireTestStarted(Description.createSuiteDescription("slow"));
+			}
+		};
+		slow.start();
+		notifier.fireTestStarted(Description.createSuiteDescription("fast"));
+		slow.join();
+		assertEquals(0, otherThreadNotified.getCount());
+	}
+
+	@Test public void listenerAddedWhileFiringIsNotifiedOfLaterEvents() {
+		final RunNotifier notifier= new RunNotifier();
+		log= "";
+		notifier.addListener(new RunListener() {
+			@Override
+			public void testStarted(Description description) throws Exception {
+				log+= "first ";
+				notifier.addListener(new RunListener() {
+					@Override
+					public void testFinished(Description description) throws Exception {
+						log+= "added ";
+					}
+				});
+			}
+		});
+		notifier.fireTestStarted(Description.EMPTY);
+		notifier.fireTestFinished(Description.EMPTY);
+		assertEquals("first added ", log);
+	}
 }
@@ -0,0 +1,136 @@
+package org.junit.tests.listening;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.internal.XmlListener;
+import org.junit.runner.FailureRetention;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class XmlListenerTest {
+	public static class Mixed {
+		@Test public void passes() {}
+		@Test public void fails() { fail("a <b> & \"c\""); }
+		@Test public void assumes() { assumeTrue(false); }
+		@Ignore @Test public void ignored() {}
+	}
+
+	private File fReport;
+
+	@Before
+	public void createReport() throws IOException {
+		fReport= File.createTempFile("junit", ".xml");
+	}
+
+	@After
+	public void deleteReport() {
+		fReport.delete();
+	}
+
+	@Test public void writesWellFormedReportWithCounts() throws Exception {
+		JUnitCore core= new JUnitCore();
+		core.addListener(new XmlListener(fReport));
+		core.run(Mixed.class);
+		Document document= DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder().parse(fReport);
+		Element suite= document.getDocumentElement();
+		assertEquals("3", suite.getAttribute("tests"));
+		assertEquals("1", suite.getAttribute("failures"));
+		assertEquals("0", suite.getAttribute("errors"));
+		assertEquals("2", suite.getAttribute("skipped"));
+		assertTrue(suite.getAttribute("time"), suite.getAttribute("time")
+				.matches("(0|[1-9][0-9]*)\\.[0-9]{3}"));
+		assertEquals(4, suite.getElementsByTagName("testcase").getLength());
+		Element failure= (Element) suite.getElementsByTagName("failure").item(0);
+		assertEquals("a <b> & \"c\"", failure.getAttribute("message"));
+		assertEquals("fails", ((Element) failure.getParentNode()).getAttribute("name"));
+	}
+
+	@Test public void reportsClassLevelFailureAsItsOwnTestCase() throws Exception {
+		JUnitCore core= new JUnitCore();
+		core.addListener(new XmlListener(fReport));
+		core.run(Object.class);
+		String report= read(fReport);
+		assertTrue(report, report.contains("<testcase classname=\"java.lang.Object\""));
+		assertTrue(report, report.contains("<error "));
+	}
+
+	public static class ControlCharacters {
+		@Test public void fails() { fail("\u001b[31mred\u001b[0m"); }
+		@Test public void throwsException() throws Exception { throw new Exception(); }
+	}
+
+	@Test public void reportsControlCharactersAndErrorsParseably() throws Exception {
+		JUnitCore core= new JUnitCore();
+		core.addListener(new XmlListener(fReport));
+		core.run(ControlCharacters.class);
+		Element suite= DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder().parse(fReport).getDocumentElement();
+		assertEquals(1, Integer.parseInt(suite.getAttribute("failures")));
+		assertEquals(1, Integer.parseInt(suite.getAttribute("errors")));
+		Element failure= (Element) suite.getElementsByTagName("failure").item(0);
+		assertEquals("\uFFFD[31mred\uFFFD[0m", failure.getAttribute("message"));
+	}
+
+	public static class InterruptsItself {
+		@Test public void a() {
+			Thread.currentThread().interrupt();
+			fail();
+		}
+		@Test public void b() {
+			Thread.interrupted();
+		}
+	}
+
+	@Test public void writesReportFromInterruptedThread() throws Exception {
+		JUnitCore core= new JUnitCore();
+		core.addListener(new XmlListener(fReport));
+		Result result= core.run(InterruptsItself.class);
+		Thread.interrupted();
+		assertEquals(1, result.getFailureCount());
+		Element suite= DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder().parse(fReport).getDocumentElement();
+		assertEquals(2, Integer.parseInt(suite.getAttribute("tests")));
+	}
+
+	@Test public void resultCanRetainOnlyCounts() throws Exception {
+		JUnitCore core= new JUnitCore();
+		core.setFailureRetention(FailureRetention.COUNTS_ONLY);
+		Result result= core.run(Mixed.class);
+		assertEquals(1, result.getFailureCount());
+		assertTrue(result.getFailures().isEmpty());
+		assertFalse(result.wasSuccessful());
+	}
+
+	private static String read(File file) throws IOException {
+		Reader reader= new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			StringBuilder result= new StringBuilder();
+			char[] buffer= new char[4096];
+			int read;
+			while ((read= reader.read(buffer)) != -1)
+				result.append(buffer, 0, read);
+			return result.toString();
+		} finally {
+			reader.close();
+		}
+	}
+}
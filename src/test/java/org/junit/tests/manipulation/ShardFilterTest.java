@@ -0,0 +1,124 @@
+package org.junit.tests.manipulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.ShardFilter;
+import org.junit.runner.notification.RunListener;
+import org.junit.tests.TestSystem;
+
+public class ShardFilterTest {
+	public static class Twelve {
+		@Test public void test1() {}
+		@Test public void test2() {}
+		@Test public void test3() {}
+		@Test public void test4() {}
+		@Test public void test5() {}
+		@Test public void test6() {}
+		@Test public void test7() {}
+		@Test public void test8() {}
+		@Test public void test9() {}
+		@Test public void test10() {}
+		@Test public void test11() {}
+		@Test public void test12() {}
+	}
+
+	private static Set<Description> run(Filter filter) {
+		final Set<Description> started= new HashSet<Description>();
+		JUnitCore core= new JUnitCore();
+		core.addListener(new RunListener() {
+			@Override
+			public void testStarted(Description description) {
+				started.add(description);
+			}
+		});
+		core.run(Request.aClass(Twelve.class).filterWith(filter));
+		return started;
+	}
+
+	@Test public void shardsAreDisjointAndCoverAllTests() {
+		Set<Description> all= new HashSet<Description>();
+		for (int i= 0; i < 3; i++) {
+			Set<Description> shard= run(new ShardFilter(i, 3));
+			assertTrue(shard.size() > 0);
+			for (Description each : shard)
+				assertTrue(all.add(each));
+		}
+		assertEquals(12, all.size());
+	}
+
+	@Test public void sameShardEveryTime() {
+		assertEquals(run(new ShardFilter(1, 4)), run(new ShardFilter(1, 4)));
+	}
+
+	@Test public void balancedShardsHaveEqualDurations() {
+		Description suite= Request.aClass(Twelve.class).getRunner().getDescription();
+		Map<Description, Long> durations= new HashMap<Description, Long>();
+		durations.put(Description.createTestDescription(Twelve.class, "test7"), 11L);
+		for (int i= 1; i <= 12; i++)
+			if (i != 7)
+				durations.put(Description.createTestDescription(Twelve.class, "test" + i), 1L);
+		Set<Description> longShard= run(ShardFilter.balanced(0, 2, suite, durations));
+		assertEquals(1, longShard.size());
+		assertTrue(longShard.contains(Description.createTestDescription(Twelve.class, "test7")));
+		assertEquals(11, run(ShardFilter.balanced(1, 2, suite, durations)).size());
+	}
+
+	@Test(expected=IllegalArgumentException.class) public void shardMustExist() {
+		new ShardFilter(3, 3);
+	}
+
+	@Test public void commandLineRunsOneShard() {
+		int runs= 0;
+		for (int i= 0; i < 3; i++) {
+			Result result= new JUnitCore().runMain(new TestSystem(),
+					JUnitCore.SHARD_OPTION + i + "/3", Twelve.class.getName());
+			runs+= result.getRunCount();
+		}
+		assertEquals(12, runs);
+	}
+
+	private static int emptyShardOf100() {
+		int empty= 0;
+		while (!run(new ShardFilter(empty, 100)).isEmpty())
+			empty++;
+		return empty;
+	}
+
+	@Test public void emptyShardSucceeds() {
+		Result result= new JUnitCore().run(Request.aClass(Twelve.class)
+				.filterWith(new ShardFilter(emptyShardOf100(), 100)));
+		assertEquals(0, result.getRunCount());
+		assertTrue(result.wasSuccessful());
+	}
+
+	@Test public void commandLineReportsMalformedShard() {
+		TestSystem system= new TestSystem();
+		Result result= new JUnitCore().runMain(system,
+				JUnitCore.SHARD_OPTION + "3/3", Twelve.class.getName());
+		assertFalse(result.wasSuccessful());
+		assertEquals(0, result.getRunCount());
+		assertTrue(system.outContents().toString().contains(
+				"Expected " + JUnitCore.SHARD_OPTION + "INDEX/COUNT"));
+	}
+
+	@Test public void commandLineSucceedsOnAnEmptyShard() {
+		int empty= emptyShardOf100();
+		Result result= new JUnitCore().runMain(new TestSystem(),
+				JUnitCore.SHARD_OPTION + empty + "/100", Twelve.class.getName());
+		assertEquals(0, result.getRunCount());
+		assertTrue(result.wasSuccessful());
+	}
+}
@@ -1,7 +1,16 @@
 package org.junit.tests.running.classes;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -10,6 +19,12 @@ import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.MethodRule;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.TestClass;
 
 public class TestClassTest {
@@ -83,4 +98,61 @@ public class TestClassTest {
 		assertThat(new TestClass(SubclassWithField.class).getAnnotatedFields(
 				Rule.class).size(), is(1));
 	}
+
+	@Test
+	public void forClassSharesInstances() {
+		TestClass testClass= TestClass.forClass(ManyMethods.class);
+		assertSame(testClass, TestClass.forClass(ManyMethods.class));
+		TestClass.clearCache();
+		assertNotSame(testClass, TestClass.forClass(ManyMethods.class));
+	}
+
+	@Test
+	public void forClassDoesNotKeepClassLoadersAlive() throws Exception {
+		URL[] urls= { ManyMethods.class.getProtectionDomain().getCodeSource().getLocation(),
+				Test.class.getProtectionDomain().getCodeSource().getLocation() };
+		ClassLoader loader= new URLClassLoader(urls, null);
+		TestClass.forClass(loader.loadClass(ManyMethods.class.getName()));
+		WeakReference<ClassLoader> reference= new WeakReference<ClassLoader>(loader);
+		loader= null;
+		for (int i= 0; i < 20 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(reference.get());
+	}
+
+	@Test(expected= UnsupportedOperationException.class)
+	public void annotatedMethodsCannotBeModified() {
+		TestClass.forClass(ManyMethods.class).getAnnotatedMethods(Test.class)
+				.clear();
+	}
+
+	public static class OneTest {
+		@Test
+		public void a() {
+		}
+	}
+
+	public static class AddsATestMethod extends BlockJUnit4ClassRunner {
+		public AddsATestMethod(Class<?> klass) throws InitializationError {
+			super(klass);
+		}
+
+		@Override
+		protected List<FrameworkMethod> computeTestMethods() {
+			List<FrameworkMethod> methods= super.computeTestMethods();
+			methods.add(methods.get(0));
+			return methods;
+		}
+	}
+
+	@Test
+	public void subclassesMayModifyComputedTestMethods() throws Exception {
+		Result result= new JUnitCore().run(Request.runner(new AddsATestMethod(
+				OneTest.class)));
+		assertThat(result.getRunCount(), is(2));
+		assertThat(TestClass.forClass(OneTest.class).getAnnotatedMethods(
+				Test.class).size(), is(1));
+	}
 }
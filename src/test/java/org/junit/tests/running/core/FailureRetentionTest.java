@@ -0,0 +1,92 @@
+package org.junit.tests.running.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.internal.CompactThrowable;
+import org.junit.runner.FailureRetention;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.tests.TestSystem;
+
+public class FailureRetentionTest {
+	public static class ThreeFailures {
+		@Test public void a() { fail("a"); }
+		@Test public void b() { fail("b"); }
+		@Test public void c() { fail("c"); }
+	}
+
+	private static Result run(FailureRetention retention) {
+		JUnitCore core= new JUnitCore();
+		core.setFailureRetention(retention);
+		return core.run(ThreeFailures.class);
+	}
+
+	@Test public void keepsFirstFailuresComplete() {
+		List<Failure> failures= run(FailureRetention.firstFull(1)).getFailures();
+		assertEquals(3, failures.size());
+		assertEquals(AssertionError.class, failures.get(0).getException().getClass());
+		for (Failure each : failures.subList(1, 3)) {
+			CompactThrowable compact= (CompactThrowable) each.getException();
+			assertEquals(AssertionError.class.getName(), compact.getThrowableClassName());
+			assertEquals(0, compact.getStackTrace().length);
+			assertTrue(each.getTrace(), each.getTrace().startsWith(
+					"java.lang.AssertionError: " + each.getMessage()));
+		}
+	}
+
+	private static Exception thrown(String message) {
+		return new Exception(message);
+	}
+
+	@Test public void compactTracesShareLines() {
+		Map<String, String> pool= new HashMap<String, String>();
+		int linesOfOne= 0;
+		for (String each : new String[] { "first", "second" }) {
+			new CompactThrowable(thrown(each), pool);
+			if (linesOfOne == 0)
+				linesOfOne= pool.size();
+		}
+		assertEquals(linesOfOne + 1, pool.size());
+	}
+
+	@Test public void internPoolIsBounded() {
+		Map<String, String> pool= new HashMap<String, String>();
+		for (int i= 0; i < CompactThrowable.MAX_INTERNED_LINES + 10; i++)
+			new CompactThrowable(thrown("failure " + i), pool);
+		assertEquals(CompactThrowable.MAX_INTERNED_LINES, pool.size());
+	}
+
+	@Test public void countsOnly() {
+		Result result= run(FailureRetention.COUNTS_ONLY);
+		assertEquals(3, result.getFailureCount());
+		assertTrue(result.getFailures().isEmpty());
+	}
+
+	@Test public void countsOnlyCountsCommandLineProblems() {
+		JUnitCore core= new JUnitCore();
+		core.setFailureRetention(FailureRetention.COUNTS_ONLY);
+		Result result= core.runMain(new TestSystem(), "no.such.Class");
+		assertEquals(1, result.getFailureCount());
+		assertFalse(result.wasSuccessful());
+		result= core.runMain(new TestSystem(), JUnitCore.SHARD_OPTION + "3/3",
+				ThreeFailures.class.getName());
+		assertEquals(0, result.getRunCount());
+		assertFalse(result.wasSuccessful());
+	}
+
+	@Test public void allKeepsOriginalExceptions() {
+		Result result= run(FailureRetention.ALL);
+		for (Failure each : result.getFailures())
+			assertSame(AssertionError.class, each.getException().getClass());
+	}
+}
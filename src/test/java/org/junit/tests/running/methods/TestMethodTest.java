@@ -17,6 +17,7 @@ import org.junit.Test;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Result;
 import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
 
 public class TestMethodTest {
@@ -144,4 +145,31 @@ public class TestMethodTest {
 		assertEquals(0, result.getFailureCount());
 		assertEquals(1, result.getIgnoreCount());
 	}
+
+	public static class Throwing {
+		public void fail() throws Exception {
+			throw new IllegalStateException("thrown");
+		}
+
+		public String echo(String value) {
+			return value;
+		}
+	}
+
+	@Test public void invokeExplosivelyRethrowsTheOriginalException() throws Throwable {
+		FrameworkMethod method= new FrameworkMethod(Throwing.class.getMethod("fail"));
+		try {
+			method.invokeExplosively(new Throwing());
+		} catch (IllegalStateException e) {
+			assertEquals("thrown", e.getMessage());
+			return;
+		}
+		throw new AssertionError("expected exception");
+	}
+
+	@Test public void invokeExplosivelyPassesParametersAndReturnsResult() throws Throwable {
+		FrameworkMethod method= new FrameworkMethod(Throwing.class.getMethod("echo", String.class));
+		assertEquals("value", method.invokeExplosively(new Throwing(), "value"));
+		assertEquals("again", method.invokeExplosively(new Throwing(), "again"));
+	}
 }
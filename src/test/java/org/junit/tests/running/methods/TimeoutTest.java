@@ -2,20 +2,30 @@ package org.junit.tests.running.methods;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.matchers.JUnitMatchers.containsString;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
 
 import junit.framework.JUnit4TestAdapter;
 import junit.framework.TestResult;
 import org.junit.After;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.internal.LeakedThreadListener;
+import org.junit.internal.runners.statements.FailOnTimeout;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Result;
 
@@ -167,4 +177,140 @@ public class TimeoutTest {
 		JUnitCore.runClasses(WillTimeOut.class);
 		assertThat(WillTimeOut.afterWasCalled, is(true));
 	}
+
+	public static class RecordsThreads {
+		static final List<Thread> threads= new ArrayList<Thread>();
+
+		@Test(timeout= 1000) public void one() {
+			threads.add(Thread.currentThread());
+		}
+
+		@Test(timeout= 1000) public void two() {
+			threads.add(Thread.currentThread());
+		}
+	}
+
+	@Test public void timedTestsReuseWorkerThreads() {
+		RecordsThreads.threads.clear();
+		JUnitCore.runClasses(RecordsThreads.class);
+		assertEquals(2, RecordsThreads.threads.size());
+		for (Thread each : RecordsThreads.threads) {
+			assertNotSame(Thread.currentThread(), each);
+			assertTrue(each.getName(), each.getName().startsWith("junit-timeout-"));
+		}
+	}
+
+	public static class SetsThreadLocal {
+		static final ThreadLocal<String> value= new ThreadLocal<String>();
+
+		static Thread thread;
+
+		@Test(timeout= 1000) public void sets() {
+			thread= Thread.currentThread();
+			value.set("set");
+		}
+	}
+
+	public static class ReadsThreadLocal {
+		static Thread thread;
+
+		static String value;
+
+		@Test(timeout= 1000) public void reads() {
+			thread= Thread.currentThread();
+			value= SetsThreadLocal.value.get();
+		}
+	}
+
+	@Test public void threadLocalsCarryOverToLaterTestsOnTheSameWorker() {
+		JUnitCore.runClasses(SetsThreadLocal.class);
+		JUnitCore.runClasses(ReadsThreadLocal.class);
+		assertEquals(SetsThreadLocal.thread == ReadsThreadLocal.thread,
+				"set".equals(ReadsThreadLocal.value));
+	}
+
+	public static class RenamesThread {
+		static Thread thread;
+
+		@Test(timeout= 1000) public void renames() {
+			thread= Thread.currentThread();
+			thread.setName("renamed");
+		}
+	}
+
+	@Test public void workerChangedByATestIsNotReused() {
+		JUnitCore.runClasses(RenamesThread.class);
+		Thread renamed= RenamesThread.thread;
+		for (int i= 0; i < 10; i++) {
+			JUnitCore.runClasses(RenamesThread.class);
+			assertNotSame(renamed, RenamesThread.thread);
+		}
+	}
+
+	public static class RecordsContextClassLoader {
+		static ClassLoader loader;
+
+		@Test(timeout= 1000) public void one() {
+			loader= Thread.currentThread().getContextClassLoader();
+		}
+	}
+
+	@Test public void timedTestsRunWithTheCallersContextClassLoader() {
+		ClassLoader original= Thread.currentThread().getContextClassLoader();
+		ClassLoader loader= new URLClassLoader(new URL[0], original);
+		Thread.currentThread().setContextClassLoader(loader);
+		try {
+			JUnitCore.runClasses(RecordsContextClassLoader.class);
+		} finally {
+			Thread.currentThread().setContextClassLoader(original);
+		}
+		assertSame(loader, RecordsContextClassLoader.loader);
+		JUnitCore.runClasses(RecordsContextClassLoader.class);
+		assertSame(original, RecordsContextClassLoader.loader);
+	}
+
+	public static class StopsWhenInterrupted {
+		@Test(timeout= 10) public void failure() throws InterruptedException {
+			Thread.sleep(10000);
+		}
+	}
+
+	@Test public void interruptibleTestIsNotLeaked() throws InterruptedException {
+		List<Thread> leakedBefore= FailOnTimeout.getLeakedThreads();
+		Result result= JUnitCore.runClasses(StopsWhenInterrupted.class);
+		assertEquals(1, result.getFailureCount());
+		Thread.sleep(100);
+		List<Thread> leaked= FailOnTimeout.getLeakedThreads();
+		leaked.removeAll(leakedBefore);
+		assertTrue(leaked.toString(), leaked.isEmpty());
+	}
+
+	@Test public void leakedThreadIsReported() {
+		JUnitCore core= new JUnitCore();
+		ByteArrayOutputStream out= new ByteArrayOutputStream();
+		core.addListener(new LeakedThreadListener(new PrintStream(out)));
+		core.run(InfiniteLoopTest.class);
+		assertThat(out.toString(), containsString("leaked thread of timed out tests"));
+		assertThat(out.toString(), containsString("infiniteLoop"));
+	}
+
+	public static class OnCallingThread {
+		static Thread thread;
+
+		@Test(timeout= 1000, timeoutOnCallingThread= true) public void records() {
+			thread= Thread.currentThread();
+		}
+
+		@Test(timeout= 10, timeoutOnCallingThread= true) public void sleeps() throws InterruptedException {
+			Thread.sleep(10000);
+		}
+	}
+
+	@Test public void timeoutOnCallingThread() {
+		Result result= JUnitCore.runClasses(OnCallingThread.class);
+		assertSame(Thread.currentThread(), OnCallingThread.thread);
+		assertEquals(1, result.getFailureCount());
+		assertThat(result.getFailures().get(0).getMessage(),
+				containsString("test timed out after 10 milliseconds"));
+	}
 }